@@ -0,0 +1,121 @@
+package benchmarks;
+
+import collisiondetection.CollisionInfo;
+import collisiondetection.NearestHit;
+import game.GameEnvironment;
+import geometricshapes.Line;
+import geometricshapes.Rectangle;
+import levels.LevelInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CollisionBenchmark - benchmarks of the collision queries of the game environment, on the environments of the
+ *  shipped levels (built as the game builds them) or of large generated layouts, with one-frame ball trajectories
+ *  all over the area.
+ *
+ * @author Ayelet Tennenboim
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    // Number of samples (a power of 2)
+    private static final int SAMPLES = 1024;
+    // The radius of the balls
+    private static final double RADIUS = 5;
+    /**
+     * The layout of the blocks: "shipped" for the shipped levels, or "generated" and a number of blocks.
+     */
+    @Param({"shipped", "generated1000", "generated10000"})
+    public String layout;
+    // The environment and the trajectory of each sample
+    private GameEnvironment[] environments;
+    private Line[] trajectories;
+    // The hit record of the swept queries
+    private NearestHit hit;
+    // The index of the next sample
+    private int next;
+
+    /**
+     * Builds the environments and chooses the samples.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<LevelInformation> levels = Layouts.shippedLevels();
+        double[] speeds = Layouts.speeds(levels);
+        this.environments = new GameEnvironment[SAMPLES];
+        if (this.layout.equals("shipped")) {
+            // The samples go over the levels in turn
+            GameEnvironment[] levelEnvironments = new GameEnvironment[levels.size()];
+            for (int i = 0; i < levels.size(); i++) {
+                levelEnvironments[i] = Layouts.environment(levels.get(i));
+            }
+            for (int i = 0; i < SAMPLES; i++) {
+                this.environments[i] = levelEnvironments[i % levelEnvironments.length];
+            }
+            this.trajectories = Layouts.trajectories(random, SAMPLES, 600, speeds);
+        } else {
+            int count = Integer.parseInt(this.layout.substring("generated".length()));
+            List<Rectangle> rectangles = Layouts.generated(count);
+            double height = Layouts.generatedHeight(count);
+            GameEnvironment environment = Layouts.environment(rectangles, height);
+            for (int i = 0; i < SAMPLES; i++) {
+                this.environments[i] = environment;
+            }
+            this.trajectories = Layouts.trajectories(random, SAMPLES, height, speeds);
+        }
+        this.hit = new NearestHit();
+        this.next = 0;
+    }
+    /**
+     * Benchmark of GameEnvironment.getClosestCollision: the closest collision of a point moving along a trajectory.
+     *
+     * @return the collision information (or null).
+     */
+    @Benchmark
+    public CollisionInfo getClosestCollision() {
+        int i = this.nextSample();
+        return this.environments[i].getClosestCollision(this.trajectories[i]);
+    }
+    /**
+     * Benchmark of GameEnvironment.findNearestHit: the time of impact of a ball swept along a trajectory, as the
+     *  balls of the game query it.
+     *
+     * @return true if the ball collides with a collidable, false otherwise.
+     */
+    @Benchmark
+    public boolean findNearestHit() {
+        int i = this.nextSample();
+        Line line = this.trajectories[i];
+        return this.environments[i].findNearestHit(line.start().getX(), line.start().getY(), line.end().getX(),
+                line.end().getY(), RADIUS, this.hit);
+    }
+    /**
+     * Returns the index of the next sample.
+     *
+     * @return the index of the next sample.
+     */
+    private int nextSample() {
+        int i = this.next;
+        this.next = (i + 1) & (SAMPLES - 1);
+        return i;
+    }
+}
@@ -0,0 +1,129 @@
+package benchmarks;
+
+import geometricshapes.Line;
+import geometricshapes.Point;
+import geometricshapes.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GeometryBenchmark - benchmarks of the intersections of lines and rectangles, on the blocks of the shipped levels
+ *  (or of a large generated layout) and on one-frame ball trajectories near them.
+ *
+ * @author Ayelet Tennenboim
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometryBenchmark {
+    // Number of samples (a power of 2)
+    private static final int SAMPLES = 1024;
+    /**
+     * The layout of the blocks: "shipped" for the shipped levels, or "generated" and a number of blocks.
+     */
+    @Param({"shipped", "generated10000"})
+    public String layout;
+    // The rectangles of the samples, the trajectories near them, and an edge of each rectangle
+    private Rectangle[] rectangles;
+    private Line[] trajectories;
+    private Line[] edges;
+    // The index of the next sample
+    private int next;
+
+    /**
+     * Chooses the samples.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double[] speeds = Layouts.speeds(Layouts.shippedLevels());
+        List<Rectangle> all;
+        if (this.layout.equals("shipped")) {
+            all = Layouts.rectangles(Layouts.shippedLevels());
+        } else {
+            all = Layouts.generated(Integer.parseInt(this.layout.substring("generated".length())));
+        }
+        this.rectangles = new Rectangle[SAMPLES];
+        this.edges = new Line[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            Rectangle rec = all.get(random.nextInt(all.size()));
+            this.rectangles[i] = rec;
+            double left = rec.getUpperLeft().getX();
+            double top = rec.getUpperLeft().getY();
+            double right = left + rec.getWidth();
+            double bottom = top + rec.getHeight();
+            switch (random.nextInt(4)) {
+                case 0:
+                    this.edges[i] = new Line(left, top, right, top);
+                    break;
+                case 1:
+                    this.edges[i] = new Line(left, bottom, right, bottom);
+                    break;
+                case 2:
+                    this.edges[i] = new Line(left, top, left, bottom);
+                    break;
+                default:
+                    this.edges[i] = new Line(right, top, right, bottom);
+                    break;
+            }
+        }
+        this.trajectories = Layouts.trajectoriesNear(random, this.rectangles, speeds);
+        this.next = 0;
+    }
+    /**
+     * Benchmark of Line.intersectionWith: a trajectory against an edge of a block.
+     *
+     * @return the intersection point (or null).
+     */
+    @Benchmark
+    public Point lineIntersectionWith() {
+        int i = this.nextSample();
+        return this.trajectories[i].intersectionWith(this.edges[i]);
+    }
+    /**
+     * Benchmark of Rectangle.intersectionPoints: a block against a trajectory near it.
+     *
+     * @return the intersection points.
+     */
+    @Benchmark
+    public List<Point> rectangleIntersectionPoints() {
+        int i = this.nextSample();
+        return this.rectangles[i].intersectionPoints(this.trajectories[i]);
+    }
+    /**
+     * Benchmark of Line.closestIntersectionToStartOfLine: a trajectory against a block near it.
+     *
+     * @return the closest intersection point (or null).
+     */
+    @Benchmark
+    public Point closestIntersectionToStartOfLine() {
+        int i = this.nextSample();
+        return this.trajectories[i].closestIntersectionToStartOfLine(this.rectangles[i]);
+    }
+    /**
+     * Returns the index of the next sample.
+     *
+     * @return the index of the next sample.
+     */
+    private int nextSample() {
+        int i = this.next;
+        this.next = (i + 1) & (SAMPLES - 1);
+        return i;
+    }
+}
@@ -0,0 +1,200 @@
+package benchmarks;
+
+import game.Counter;
+import game.GameEnvironment;
+import game.GameLevel;
+import geometricshapes.Line;
+import geometricshapes.Point;
+import geometricshapes.Rectangle;
+import levels.LevelInformation;
+import levels.LevelSet;
+import levels.LevelSetsReader;
+import levels.LevelSpecificationReader;
+import sprites.Block;
+import sprites.ball.Velocity;
+import java.awt.Color;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Layouts - the blocks and the ball trajectories that the benchmarks run on: the levels of the shipped level sets
+ *  (with the speeds of their balls), and large generated layouts of small blocks.
+ *
+ * @author Ayelet Tennenboim
+ */
+final class Layouts {
+    // The width of the screen, and the top of the area below the borders
+    static final double WIDTH = 800;
+    static final double TOP = 40;
+    // The size of a generated block, and the number of blocks in a row of a generated layout
+    private static final double BLOCK_WIDTH = 19;
+    private static final double BLOCK_HEIGHT = 10;
+    private static final int BLOCKS_IN_ROW = 40;
+    // Space below a generated layout for the balls to move in
+    private static final double SPACE_BELOW = 300;
+
+    /**
+     * Constructor - not used (static methods only).
+     */
+    private Layouts() {
+    }
+    /**
+     * Reads all the levels of all the shipped level sets.
+     *
+     * @return the levels.
+     */
+    static List<LevelInformation> shippedLevels() {
+        List<LevelInformation> levels = new ArrayList<LevelInformation>();
+        List<LevelSet> sets = LevelSetsReader.fromReader(new InputStreamReader(
+                ClassLoader.getSystemClassLoader().getResourceAsStream("level_sets.txt")));
+        for (LevelSet set : sets) {
+            levels.addAll(LevelSpecificationReader.fromReader(new InputStreamReader(
+                    ClassLoader.getSystemClassLoader().getResourceAsStream(set.getPath()))));
+        }
+        return levels;
+    }
+    /**
+     * Builds the game environment of a shipped level, exactly as the game builds it (with the borders).
+     *
+     * @param level the level.
+     * @return the game environment of the level.
+     */
+    static GameEnvironment environment(LevelInformation level) {
+        GameLevel game = new GameLevel(level, null, null, new Counter(0), new Counter(1));
+        game.initialize();
+        return game.getEnvironment();
+    }
+    /**
+     * Returns the speeds of the balls of the given levels (the length of a ball's move in one frame).
+     *
+     * @param levels the levels.
+     * @return the speeds of the balls.
+     */
+    static double[] speeds(List<LevelInformation> levels) {
+        List<Double> speeds = new ArrayList<Double>();
+        for (LevelInformation level : levels) {
+            for (Velocity v : level.initialBallVelocities()) {
+                speeds.add(Math.sqrt((v.getDx() * v.getDx()) + (v.getDy() * v.getDy())));
+            }
+        }
+        double[] result = new double[speeds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = speeds.get(i);
+        }
+        return result;
+    }
+    /**
+     * Returns the rectangles of the blocks of the given levels.
+     *
+     * @param levels the levels.
+     * @return the rectangles of the blocks.
+     */
+    static List<Rectangle> rectangles(List<LevelInformation> levels) {
+        List<Rectangle> rectangles = new ArrayList<Rectangle>();
+        for (LevelInformation level : levels) {
+            for (Block block : level.blocks()) {
+                rectangles.add(block.getCollisionRectangle());
+            }
+        }
+        return rectangles;
+    }
+    /**
+     * Generates a layout of the given number of small blocks, in rows of 40 blocks that fill the width of the
+     *  screen.
+     *
+     * @param count the number of blocks.
+     * @return the rectangles of the blocks.
+     */
+    static List<Rectangle> generated(int count) {
+        List<Rectangle> rectangles = new ArrayList<Rectangle>();
+        for (int i = 0; i < count; i++) {
+            double x = 20 + ((i % BLOCKS_IN_ROW) * BLOCK_WIDTH);
+            double y = TOP + 60 + ((i / BLOCKS_IN_ROW) * BLOCK_HEIGHT);
+            rectangles.add(new Rectangle(new Point(x, y), BLOCK_WIDTH, BLOCK_HEIGHT));
+        }
+        return rectangles;
+    }
+    /**
+     * Returns the height of the area of a generated layout (the blocks and the space below them).
+     *
+     * @param count the number of blocks.
+     * @return the height of the area.
+     */
+    static double generatedHeight(int count) {
+        int rows = (count + BLOCKS_IN_ROW - 1) / BLOCKS_IN_ROW;
+        return TOP + 60 + (rows * BLOCK_HEIGHT) + SPACE_BELOW;
+    }
+    /**
+     * Builds the game environment of a generated layout, with blocks like the blocks of the game.
+     *
+     * @param rectangles the rectangles of the blocks.
+     * @param height the height of the area.
+     * @return the game environment.
+     */
+    static GameEnvironment environment(List<Rectangle> rectangles, double height) {
+        GameEnvironment environment = new GameEnvironment(50, WIDTH, height);
+        for (Rectangle rec : rectangles) {
+            environment.addCollidable(new Block(rec, "color(red)", Color.BLACK, new HashMap<Integer, String>(), 1));
+        }
+        environment.buildStaticIndex();
+        return environment;
+    }
+    /**
+     * Generates trajectories of one frame of a ball: each starts in a random point of the area, and goes in a random
+     *  direction with one of the given speeds.
+     *
+     * @param random the random numbers generator.
+     * @param count the number of trajectories.
+     * @param height the height of the area.
+     * @param speeds the speeds of the balls.
+     * @return the trajectories.
+     */
+    static Line[] trajectories(Random random, int count, double height, double[] speeds) {
+        Line[] lines = new Line[count];
+        for (int i = 0; i < count; i++) {
+            double x = 20 + (random.nextDouble() * (WIDTH - 40));
+            double y = TOP + (random.nextDouble() * (height - TOP));
+            lines[i] = step(random, x, y, speeds);
+        }
+        return lines;
+    }
+    /**
+     * Generates a trajectory of one frame of a ball near each of the given rectangles: it starts in a random point
+     *  around the rectangle (up to one frame's move away), so some of the trajectories cross the rectangle and some
+     *  don't.
+     *
+     * @param random the random numbers generator.
+     * @param rectangles the rectangles.
+     * @param speeds the speeds of the balls.
+     * @return the trajectories (one for every rectangle, in the same order).
+     */
+    static Line[] trajectoriesNear(Random random, Rectangle[] rectangles, double[] speeds) {
+        Line[] lines = new Line[rectangles.length];
+        for (int i = 0; i < rectangles.length; i++) {
+            Rectangle rec = rectangles[i];
+            double speed = speeds[random.nextInt(speeds.length)];
+            double x = rec.getUpperLeft().getX() - speed + (random.nextDouble() * (rec.getWidth() + (2 * speed)));
+            double y = rec.getUpperLeft().getY() - speed + (random.nextDouble() * (rec.getHeight() + (2 * speed)));
+            lines[i] = step(random, x, y, speeds);
+        }
+        return lines;
+    }
+    /**
+     * Generates a trajectory of one frame of a ball from the given point, in a random direction with one of the
+     *  given speeds.
+     *
+     * @param random the random numbers generator.
+     * @param x the x value of the start.
+     * @param y the y value of the start.
+     * @param speeds the speeds of the balls.
+     * @return the trajectory.
+     */
+    private static Line step(Random random, double x, double y, double[] speeds) {
+        double speed = speeds[random.nextInt(speeds.length)];
+        double angle = random.nextDouble() * 2 * Math.PI;
+        return new Line(x, y, x + (Math.cos(angle) * speed), y + (Math.sin(angle) * speed));
+    }
+}
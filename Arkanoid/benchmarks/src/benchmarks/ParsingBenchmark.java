@@ -0,0 +1,315 @@
+package benchmarks;
+
+import levels.BlockDefinitionsReader;
+import levels.ColorsParser;
+import levels.LevelInformation;
+import levels.LevelSet;
+import levels.LevelSetsReader;
+import levels.LevelSpecificationReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ParsingBenchmark - benchmarks of reading the level sets, the level specifications and the block definitions, of
+ *  parsing colors, and of creating the blocks of levels. The files are read from memory, so only the parsing is
+ *  measured (the block definitions that a level specification refers to are still read from the class path, as in
+ *  the game).
+ *
+ * The "bundled" source uses the files of the game. The "synthetic" source uses generated files: thousands of
+ *  levels, block definitions and level sets, and a level with thousands of blocks.
+ *
+ * @author Ayelet Tennenboim
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParsingBenchmark {
+    // Number of levels, block definitions and level sets in the synthetic files
+    private static final int SYNTHETIC_LEVELS = 2000;
+    private static final int SYNTHETIC_BLOCK_DEFINITIONS = 5000;
+    private static final int SYNTHETIC_LEVEL_SETS = 2000;
+    // Number of rows of 15 blocks in the synthetic large level
+    private static final int SYNTHETIC_ROWS = 200;
+    // Number of colors in the synthetic colors list
+    private static final int SYNTHETIC_COLORS = 1000;
+    // The named colors that the colors parser knows
+    private static final String[] COLOR_NAMES = {"black", "blue", "cyan", "gray", "lightGray", "green", "orange",
+            "pink", "red", "white", "yellow"};
+    /**
+     * The source of the files: "bundled" or "synthetic".
+     */
+    @Param({"bundled", "synthetic"})
+    public String source;
+    // The contents of the files of each kind
+    private List<String> levelSetsFiles;
+    private List<String> levelFiles;
+    private List<String> blockDefinitionsFiles;
+    // The color definitions to parse
+    private String[] colors;
+    // The levels whose blocks are created
+    private List<LevelInformation> levels;
+    // The colors parser
+    private ColorsParser colorsParser;
+
+    /**
+     * Reads or generates the files.
+     *
+     * @throws IOException if a bundled file can't be read.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.colorsParser = new ColorsParser();
+        this.levelSetsFiles = new ArrayList<String>();
+        this.levelFiles = new ArrayList<String>();
+        this.blockDefinitionsFiles = new ArrayList<String>();
+        if (this.source.equals("bundled")) {
+            this.setUpBundled();
+        } else {
+            this.setUpSynthetic();
+        }
+        this.levels = new ArrayList<LevelInformation>();
+        for (String file : this.levelFiles) {
+            this.levels.addAll(LevelSpecificationReader.fromReader(new StringReader(file)));
+        }
+        // Only the large level of the synthetic files is used for creating blocks
+        if (this.source.equals("synthetic")) {
+            this.levels = this.levels.subList(this.levels.size() - 1, this.levels.size());
+        }
+    }
+    /**
+     * Benchmark of LevelSetsReader.fromReader.
+     *
+     * @param blackhole a blackhole to consume the results.
+     */
+    @Benchmark
+    public void readLevelSets(Blackhole blackhole) {
+        for (String file : this.levelSetsFiles) {
+            blackhole.consume(LevelSetsReader.fromReader(new StringReader(file)));
+        }
+    }
+    /**
+     * Benchmark of LevelSpecificationReader.fromReader.
+     *
+     * @param blackhole a blackhole to consume the results.
+     */
+    @Benchmark
+    public void readLevelSpecifications(Blackhole blackhole) {
+        for (String file : this.levelFiles) {
+            blackhole.consume(LevelSpecificationReader.fromReader(new StringReader(file)));
+        }
+    }
+    /**
+     * Benchmark of BlockDefinitionsReader.fromReader.
+     *
+     * @param blackhole a blackhole to consume the results.
+     */
+    @Benchmark
+    public void readBlockDefinitions(Blackhole blackhole) {
+        for (String file : this.blockDefinitionsFiles) {
+            blackhole.consume(BlockDefinitionsReader.fromReader(new StringReader(file)));
+        }
+    }
+    /**
+     * Benchmark of ColorsParser.colorFromString.
+     *
+     * @param blackhole a blackhole to consume the results.
+     */
+    @Benchmark
+    public void parseColors(Blackhole blackhole) {
+        for (String color : this.colors) {
+            blackhole.consume(this.colorsParser.colorFromString(color));
+        }
+    }
+    /**
+     * Benchmark of Level.blocks().
+     *
+     * @param blackhole a blackhole to consume the results.
+     */
+    @Benchmark
+    public void createBlocks(Blackhole blackhole) {
+        for (LevelInformation level : this.levels) {
+            blackhole.consume(level.blocks());
+        }
+    }
+    /**
+     * Reads the files of the game: the level sets file, the level files it lists, and the block definitions files
+     *  that the levels refer to. The colors are all the color definitions in these files.
+     *
+     * @throws IOException if a file can't be read.
+     */
+    private void setUpBundled() throws IOException {
+        String levelSets = readResource("level_sets.txt");
+        this.levelSetsFiles.add(levelSets);
+        Set<String> blockDefinitionsPaths = new LinkedHashSet<String>();
+        for (LevelSet set : LevelSetsReader.fromReader(new StringReader(levelSets))) {
+            String file = readResource(set.getPath());
+            this.levelFiles.add(file);
+            Matcher matcher = Pattern.compile("block_definitions:(\\S+)").matcher(file);
+            while (matcher.find()) {
+                blockDefinitionsPaths.add(matcher.group(1));
+            }
+        }
+        List<String> colorList = new ArrayList<String>();
+        Pattern colorPattern = Pattern.compile("color\\((RGB\\([^)]*\\)|[a-zA-Z]+)\\)");
+        for (String path : blockDefinitionsPaths) {
+            String file = readResource(path);
+            this.blockDefinitionsFiles.add(file);
+            Matcher matcher = colorPattern.matcher(file);
+            while (matcher.find()) {
+                colorList.add(matcher.group());
+            }
+        }
+        for (String file : this.levelFiles) {
+            Matcher matcher = colorPattern.matcher(file);
+            while (matcher.find()) {
+                colorList.add(matcher.group());
+            }
+        }
+        this.colors = colorList.toArray(new String[colorList.size()]);
+    }
+    /**
+     * Generates the synthetic files. The levels refer to the standard block definitions of the game, and the last
+     *  level is a large level with thousands of blocks.
+     */
+    private void setUpSynthetic() {
+        Random random = new Random(42);
+        this.colors = new String[SYNTHETIC_COLORS];
+        for (int i = 0; i < SYNTHETIC_COLORS; i++) {
+            this.colors[i] = randomColor(random);
+        }
+        StringBuilder levelSets = new StringBuilder();
+        for (int i = 0; i < SYNTHETIC_LEVEL_SETS; i++) {
+            levelSets.append("k").append(i).append(":Set ").append(i).append('\n');
+            levelSets.append("definitions/set_").append(i).append("_level_definitions.txt\n");
+        }
+        this.levelSetsFiles.add(levelSets.toString());
+        StringBuilder blockDefinitions = new StringBuilder();
+        blockDefinitions.append("default height:25 width:50 stroke:color(black) hit_points:1\n");
+        for (int i = 0; i < SYNTHETIC_BLOCK_DEFINITIONS; i++) {
+            blockDefinitions.append("bdef symbol:s").append(i).append(" hit_points:2 fill:")
+                    .append(randomColor(random)).append(" fill-2:").append(randomColor(random)).append('\n');
+        }
+        blockDefinitions.append("sdef symbol:- width:50\n");
+        this.blockDefinitionsFiles.add(blockDefinitions.toString());
+        String symbols = "Gbyrgpwco";
+        StringBuilder levels = new StringBuilder();
+        for (int i = 0; i < SYNTHETIC_LEVELS; i++) {
+            List<String> rows = new ArrayList<String>();
+            for (int row = 0; row < 6; row++) {
+                rows.add(randomRow(random, symbols));
+            }
+            appendLevel(levels, "Level " + i, rows, random);
+        }
+        List<String> rows = new ArrayList<String>();
+        for (int row = 0; row < SYNTHETIC_ROWS; row++) {
+            rows.add(randomRow(random, symbols));
+        }
+        appendLevel(levels, "Large", rows, random);
+        this.levelFiles.add(levels.toString());
+    }
+    /**
+     * Appends a level specification to the given text.
+     *
+     * @param text the text.
+     * @param name the name of the level.
+     * @param rows the rows of blocks.
+     * @param random the random numbers generator.
+     */
+    private static void appendLevel(StringBuilder text, String name, List<String> rows, Random random) {
+        int blocks = 0;
+        for (String row : rows) {
+            blocks += row.replace("-", "").length();
+        }
+        text.append("START_LEVEL\n");
+        text.append("level_name:").append(name).append('\n');
+        text.append("ball_velocities:45,8 -45,8\n");
+        text.append("background:").append(randomColor(random)).append('\n');
+        text.append("paddle_speed:8\n");
+        text.append("paddle_width:160\n");
+        text.append("block_definitions:definitions/standard_block_definitions.txt\n");
+        text.append("blocks_start_x:25\n");
+        text.append("blocks_start_y:80\n");
+        text.append("row_height:25\n");
+        text.append("num_blocks:").append(blocks).append('\n');
+        text.append("START_BLOCKS\n");
+        for (String row : rows) {
+            text.append(row).append('\n');
+        }
+        text.append("END_BLOCKS\n");
+        text.append("END_LEVEL\n");
+    }
+    /**
+     * Returns a random row of 15 symbols of blocks and spacers.
+     *
+     * @param random the random numbers generator.
+     * @param symbols the symbols of the blocks.
+     * @return the row.
+     */
+    private static String randomRow(Random random, String symbols) {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < 15; i++) {
+            if (random.nextInt(5) == 0) {
+                row.append('-');
+            } else {
+                row.append(symbols.charAt(random.nextInt(symbols.length())));
+            }
+        }
+        return row.toString();
+    }
+    /**
+     * Returns a random color definition: a named color or an RGB color.
+     *
+     * @param random the random numbers generator.
+     * @return the color definition.
+     */
+    private static String randomColor(Random random) {
+        if (random.nextBoolean()) {
+            return "color(" + COLOR_NAMES[random.nextInt(COLOR_NAMES.length)] + ")";
+        }
+        return "color(RGB(" + random.nextInt(256) + "," + random.nextInt(256) + "," + random.nextInt(256) + "))";
+    }
+    /**
+     * Reads a text file from the class path.
+     *
+     * @param path the path of the file.
+     * @return the content of the file.
+     * @throws IOException if the file can't be read.
+     */
+    private static String readResource(String path) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                ClassLoader.getSystemClassLoader().getResourceAsStream(path)));
+        StringBuilder text = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            text.append(line).append('\n');
+        }
+        reader.close();
+        return text.toString();
+    }
+}
@@ -0,0 +1,225 @@
+package benchmarks;
+
+import animation.HighScoresAnimation;
+import animation.menu.MenuAnimation;
+import game.Counter;
+import game.GameLevel;
+import headless.CountingDrawSurface;
+import headless.ScriptedKeyboard;
+import levels.LevelInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import score.HighScoresTable;
+import score.ScoreInfo;
+import sprites.Block;
+import sprites.LivesIndicator;
+import sprites.ScoreIndicator;
+import sprites.Sprite;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RenderingBenchmark - benchmarks of drawing one frame of the game screens: a whole level (all its sprites), its
+ *  blocks, its background and its indicators, and the menu and the high-scores screens. Nothing is moved - only the
+ *  drawing is measured, on a surface that counts the drawing commands instead of drawing them. The frames of a level
+ *  are retained, so a frame of a level where nothing changed only draws the retained frame, and a frame where the
+ *  balls and the paddle moved draws them again in their old and new areas.
+ *
+ * Each operation is one frame, so the score is the time of a frame, and running with "-prof gc" (as the bench target
+ *  of the makefile does) reports the bytes allocated in a frame (gc.alloc.rate.norm). The numbers of drawing
+ *  commands, color changes and images in a frame are printed at the end of each trial.
+ *
+ * @author Ayelet Tennenboim
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderingBenchmark {
+    // The surface that counts the drawing commands
+    private CountingDrawSurface surface;
+    // Number of frames that were drawn on the surface
+    private long frames;
+    // The name of the benchmark and its level (for the report of the counts)
+    private String benchmark;
+    // The menu and the high-scores screens
+    private MenuAnimation<Void> menu;
+    private HighScoresAnimation highScores;
+
+    /**
+     * A level of the shipped level sets, ready to be drawn: with its sprites, its balls and its paddle.
+     */
+    @State(Scope.Thread)
+    public static class LevelScene {
+        /**
+         * The index of the level in the shipped level sets.
+         */
+        @Param({"0", "1", "2", "3", "4", "5", "6", "7"})
+        public int level;
+        // The game level, and its blocks, background and indicators
+        private GameLevel game;
+        private Block[] blocks;
+        private Sprite background;
+        private ScoreIndicator scoreIndicator;
+        private LivesIndicator livesIndicator;
+
+        /**
+         * Builds the level as the game does before a turn starts.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            LevelInformation information = Layouts.shippedLevels().get(this.level);
+            Counter score = new Counter(1250);
+            Counter lives = new Counter(7);
+            this.game = new GameLevel(information, null, new ScriptedKeyboard(), score, lives);
+            this.game.initialize();
+            this.game.createBalls(information.numberOfBalls());
+            this.game.createPaddle().addToGame(this.game);
+            // One tick, so the balls are drawn at different places at different parts of the way
+            this.game.tick();
+            List<Block> blockList = information.blocks();
+            this.blocks = blockList.toArray(new Block[blockList.size()]);
+            this.background = information.getBackground();
+            this.scoreIndicator = new ScoreIndicator(score);
+            this.livesIndicator = new LivesIndicator(lives);
+        }
+    }
+
+    /**
+     * Creates the surface and the screens.
+     *
+     * @param params the parameters of the benchmark.
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        this.surface = new CountingDrawSurface();
+        this.frames = 0;
+        this.benchmark = params.getBenchmark();
+        if (params.getParamsKeys().contains("level")) {
+            this.benchmark += " (level " + params.getParam("level") + ")";
+        }
+        this.menu = new MenuAnimation<Void>("Arkanoid", null, new ScriptedKeyboard());
+        this.menu.addSelection("s", "Start Game", null);
+        this.menu.addSelection("h", "High Scores", null);
+        this.menu.addSelection("q", "Quit", null);
+        HighScoresTable table = new HighScoresTable(5);
+        for (int i = 0; i < 5; i++) {
+            table.add(new ScoreInfo("Player " + i, 1000 * (i + 1)));
+        }
+        this.highScores = new HighScoresAnimation(table);
+    }
+    /**
+     * Prints the numbers of drawing commands, color changes and images in a frame.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (this.frames > 0) {
+            System.out.println();
+            System.out.printf("%s per frame: %.1f drawing commands, %.1f color changes, %.1f images%n",
+                    this.benchmark, this.surface.getDrawCount() / (double) this.frames,
+                    this.surface.getColorCount() / (double) this.frames,
+                    this.surface.getImageCount() / (double) this.frames);
+        }
+    }
+    /**
+     * Benchmark of drawing a whole frame of a level where nothing changed: SpriteCollection.drawAllOn on all its
+     *  sprites.
+     *
+     * @param scene the level.
+     * @return the surface.
+     */
+    @Benchmark
+    public CountingDrawSurface drawLevel(LevelScene scene) {
+        scene.game.render(this.surface, 1);
+        this.frames++;
+        return this.surface;
+    }
+    /**
+     * Benchmark of drawing a whole frame of a level where the balls and the paddle moved: the frames are drawn half
+     *  way and all the way from the previous positions, in turn.
+     *
+     * @param scene the level.
+     * @return the surface.
+     */
+    @Benchmark
+    public CountingDrawSurface drawMovingLevel(LevelScene scene) {
+        scene.game.render(this.surface, (this.frames % 2 == 0) ? 0.5 : 1);
+        this.frames++;
+        return this.surface;
+    }
+    /**
+     * Benchmark of Block.drawOn on all the blocks of a level.
+     *
+     * @param scene the level.
+     * @return the surface.
+     */
+    @Benchmark
+    public CountingDrawSurface drawBlocks(LevelScene scene) {
+        for (Block block : scene.blocks) {
+            block.drawOn(this.surface);
+        }
+        this.frames++;
+        return this.surface;
+    }
+    /**
+     * Benchmark of Background.drawOn.
+     *
+     * @param scene the level.
+     * @return the surface.
+     */
+    @Benchmark
+    public CountingDrawSurface drawBackground(LevelScene scene) {
+        scene.background.drawOn(this.surface);
+        this.frames++;
+        return this.surface;
+    }
+    /**
+     * Benchmark of ScoreIndicator.drawOn and LivesIndicator.drawOn.
+     *
+     * @param scene the level.
+     * @return the surface.
+     */
+    @Benchmark
+    public CountingDrawSurface drawIndicators(LevelScene scene) {
+        scene.scoreIndicator.drawOn(this.surface);
+        scene.livesIndicator.drawOn(this.surface);
+        this.frames++;
+        return this.surface;
+    }
+    /**
+     * Benchmark of a frame of the menu.
+     *
+     * @return the surface.
+     */
+    @Benchmark
+    public CountingDrawSurface drawMenu() {
+        this.menu.doOneFrame(this.surface);
+        this.frames++;
+        return this.surface;
+    }
+    /**
+     * Benchmark of a frame of the high-scores screen.
+     *
+     * @return the surface.
+     */
+    @Benchmark
+    public CountingDrawSurface drawHighScores() {
+        this.highScores.doOneFrame(this.surface);
+        this.frames++;
+        return this.surface;
+    }
+}
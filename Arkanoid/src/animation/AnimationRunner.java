@@ -2,57 +2,425 @@ package animation;
 
 import biuoop.DrawSurface;
 import biuoop.GUI;
-import biuoop.Sleeper;
+import java.awt.EventQueue;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * AnimationRunner - this class is the animation looping code. It takes an Animation object and runs it.
  *
+ * In fixed-timestep mode, a SteppedAnimation is advanced in constant ticks, apart from the frames that are
+ *  displayed: the time that passed is accumulated, the animation does as many ticks as fit in it (catching up when
+ *  the drawing is slow), and then it is drawn once. So the speed of the game does not depend on the speed of the
+ *  drawing, and the ticks can be faster than the frames. The animation is drawn between its last two ticks,
+ *  according to the time that is left in the accumulator, so the frames can also be faster than the ticks.
+ *
+ * The frames are paced by a FramePacer, on a schedule of nanoseconds.
+ *
+ * In pipelined mode (with fixed-timestep mode), the thread that runs a stepped animation only simulates it and
+ *  records its frames into a FrameExchange, and a render thread draws the recorded frames on the window and displays
+ *  them. So the drawing of a frame overlaps the simulation of the next one. While the animation runs another
+ *  animation (like a pause screen), the render thread is stopped.
+ *
+ * The window draws a frame on its own thread, after it is shown, so the runner waits until the window drew a frame
+ *  before it draws the next one (and the render thread waits before it lets the animation record into the buffer of
+ *  the frame). So the images that a frame draws are never changed while the window draws them.
+ *
+ * The times of doing, displaying and sleeping of every frame are recorded in FrameTimings of the type of the
+ *  animation. A frame in which a frame-by-frame animation ran another animation is not recorded; a frame in which a
+ *  stepped animation ran another animation is recorded from the time the other animation finished, so the time it
+ *  ran is not counted.
+ *
  * @author Ayelet Tennenboim
  */
 public class AnimationRunner {
+    /**
+     * Number of ticks in a second that the speeds in the game are given in (a speed is the change in position in one
+     *  tick of 1/60 seconds).
+     */
+    public static final int BASE_TICKS_PER_SECOND = 60;
+    // Maximum number of ticks in one frame - when the animation falls further behind, the rest of the time is dropped
+    private static final int MAX_TICKS_PER_FRAME = 8;
+    // Number of nanoseconds in a second
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    // A task that the render thread waits for on the thread of the window
+    private static final Runnable NO_OP = new NoOp();
     // The window of the game
     private GUI gui;
     // Number of frames the animation displays in a second
     private int framesPerSecond;
+    // Number of ticks a stepped animation does in a second
+    private int ticksPerSecond;
+    // Indication whether stepped animations run in fixed-timestep mode
+    private boolean fixedTimestep;
+    // Paces the frames of the animations
+    private FramePacer pacer;
+    // Indication whether stepped animations are drawn by a render thread
+    private boolean pipelined;
+    // The buffers of the recorded frames (created on the first pipelined animation)
+    private FrameExchange exchange;
+    // The render thread of the stepped animation that runs now (null if there is none)
+    private Renderer renderer;
+    // Indication whether an animation finished running, so an animation that ran it can reset its clock
+    private boolean resumed;
+    // The times of the frames of each type of animation
+    private Map<String, FrameTimings> timings;
 
     /**
-     * Constructor - creates a new AnimationRunner.
+     * Constructor number 1 - creates a new AnimationRunner that does one frame (and one tick) of the animation 60
+     *  times in a second.
      *
      * @param gui the window of the game.
      */
     public AnimationRunner(GUI gui) {
         this.gui = gui;
         this.framesPerSecond = 60;
+        this.ticksPerSecond = BASE_TICKS_PER_SECOND;
+        this.fixedTimestep = false;
+        this.pacer = new FramePacer(this.framesPerSecond);
+        this.timings = new LinkedHashMap<String, FrameTimings>();
+    }
+    /**
+     * Constructor number 2 - creates a new AnimationRunner in fixed-timestep mode.
+     *
+     * @param gui the window of the game.
+     * @param framesPerSecond number of frames the animation displays in a second.
+     * @param ticksPerSecond number of ticks a stepped animation does in a second.
+     */
+    public AnimationRunner(GUI gui, int framesPerSecond, int ticksPerSecond) {
+        this.gui = gui;
+        this.framesPerSecond = framesPerSecond;
+        this.ticksPerSecond = ticksPerSecond;
+        this.fixedTimestep = true;
+        this.pacer = new FramePacer(framesPerSecond);
+        this.timings = new LinkedHashMap<String, FrameTimings>();
+    }
+    /**
+     * Returns the number of frames the animations display in a second.
+     *
+     * @return the number of frames in a second.
+     */
+    public int getFramesPerSecond() {
+        return this.framesPerSecond;
+    }
+    /**
+     * Returns the length of a tick, in base ticks of 1/60 seconds. The speeds in the game are multiplied by it, so
+     *  the game has the same speed in any number of ticks in a second.
+     *
+     * @return the length of a tick, in base ticks.
+     */
+    public double getTickLength() {
+        return (double) BASE_TICKS_PER_SECOND / this.ticksPerSecond;
+    }
+    /**
+     * Sets the pipelined mode: in pipelined mode, stepped animations (in fixed-timestep mode) are drawn by a render
+     *  thread, while the next frame is simulated.
+     *
+     * @param isPipelined true for pipelined mode, false to simulate and draw on the same thread.
+     */
+    public void setPipelined(boolean isPipelined) {
+        this.pipelined = isPipelined;
+    }
+    /**
+     * Returns the pacer of the frames, that keeps the jitter of the frames.
+     *
+     * @return the pacer of the frames.
+     */
+    public FramePacer getFramePacer() {
+        return this.pacer;
+    }
+    /**
+     * Returns the times of the frames of the given type of animation. An animation that is wrapped by a
+     *  KeyPressStoppableAnimation is of the type of the animation it wraps. The times can be read while the animation
+     *  runs (they may then be one frame behind).
+     *
+     * @param name the simple name of the class of the animation (like "GameLevel"), or its full name for an
+     *  anonymous class.
+     * @return the times of the frames of the animation (null if no animation of this type ran).
+     */
+    public synchronized FrameTimings getFrameTimings(String name) {
+        return this.timings.get(name);
+    }
+    /**
+     * Returns the times of the frames of all the types of animations that ran, in the order they first ran.
+     *
+     * @return the times of the frames of all the types of animations.
+     */
+    public synchronized List<FrameTimings> getFrameTimings() {
+        return new ArrayList<FrameTimings>(this.timings.values());
+    }
+    /**
+     * Prints the times of the frames of all the types of animations that ran, and resets them.
+     *
+     * @param out the stream to print to.
+     */
+    public void dumpFrameTimings(PrintStream out) {
+        for (FrameTimings t : this.getFrameTimings()) {
+            if (t.getFrameTime().getCount() > 0) {
+                out.println(t);
+            }
+            t.reset();
+        }
     }
     /**
      * Runs the current animation loop of one turn of the game.
      *
      * This method is in charge of the timing of the animation and displaying the drawing on the screen. It runs the
-     *  animation loop, and calls animation.doOneFrame() method that does one frame of the animation.
+     *  animation loop, and calls animation.doOneFrame() method that does one frame of the animation. In
+     *  fixed-timestep mode, a stepped animation is run in ticks (see runSteps()).
      *
      * @param animation an animation object to run.
      */
     public void run(Animation animation) {
-        // Create a sleeper
-        Sleeper sleeper = new Sleeper();
-        // Each frame in the animation can last 1000 / framesPerSecond milliseconds
-        int millisecondsPerFrame = 1000 / framesPerSecond;
+        this.resumed = false;
+        // If an animation that is drawn by a render thread runs this animation - stop drawing it meanwhile
+        Renderer outer = this.renderer;
+        if (outer != null) {
+            outer.finish();
+            this.renderer = null;
+        }
+        if (this.fixedTimestep && (animation instanceof SteppedAnimation)) {
+            this.runSteps((SteppedAnimation) animation);
+        } else {
+            this.runFrames(animation);
+        }
+        if (outer != null) {
+            this.renderer = outer;
+            outer.begin();
+        }
+        this.resumed = true;
+    }
+    /**
+     * Runs an animation frame by frame: each frame is done, drawn and displayed at once.
+     *
+     * @param animation an animation object to run.
+     */
+    private void runFrames(Animation animation) {
+        FrameTimings frameTimings = this.timingsOf(animation);
+        // Each frame in the animation is due 1 / framesPerSecond seconds after the previous one
+        this.pacer.start();
         // While the animation should not stop
         while (!animation.shouldStop()) {
-            // Timing
-            long startTime = System.currentTimeMillis();
             // Get a drawSurface to draw on it
             DrawSurface d = this.gui.getDrawSurface();
+            long frameStart = System.nanoTime();
             // GameLevel-specific logic
             animation.doOneFrame(d);
+            long showStart = System.nanoTime();
             // Display the drawing on the screen
             this.gui.show(d);
+            this.awaitShown();
+            long sleepStart = System.nanoTime();
             // Timing
-            long usedTime = System.currentTimeMillis() - startTime;
-            long milliSecondLeftToSleep = millisecondsPerFrame - usedTime;
-            if (milliSecondLeftToSleep > 0) {
-                sleeper.sleepFor(milliSecondLeftToSleep);
+            this.pacer.awaitNextFrame();
+            // Record the times of the frame, unless it ran another animation
+            if (this.resumed) {
+                this.resumed = false;
+            } else {
+                frameTimings.getFrameTime().record(showStart - frameStart);
+                frameTimings.getShowTime().record(sleepStart - showStart);
+                frameTimings.getSleepTime().record(System.nanoTime() - sleepStart);
+            }
+        }
+    }
+    /**
+     * Runs a stepped animation in fixed-timestep mode: in every frame, the animation does a tick for every tick
+     *  length of time that passed (up to a maximum), and then it is drawn and displayed once - between its last two
+     *  ticks, according to the time that passed since the last tick.
+     *
+     * @param animation a stepped animation to run.
+     */
+    private void runSteps(SteppedAnimation animation) {
+        long nanosPerTick = NANOS_PER_SECOND / this.ticksPerSecond;
+        FrameTimings frameTimings = this.timingsOf(animation);
+        if (this.pipelined) {
+            if (this.exchange == null) {
+                DrawSurface surface = this.gui.getDrawSurface();
+                this.exchange = new FrameExchange(surface.getWidth(), surface.getHeight());
+            }
+            this.renderer = new Renderer(frameTimings);
+            this.renderer.begin();
+        }
+        this.pacer.start();
+        // The time that passed and was not simulated yet
+        long lag = 0;
+        long lastTime = System.nanoTime();
+        while (!animation.shouldStop()) {
+            long startTime = System.nanoTime();
+            lag += startTime - lastTime;
+            lastTime = startTime;
+            int ticks = 0;
+            boolean interrupted = false;
+            while ((lag >= nanosPerTick) && !animation.shouldStop()) {
+                // If the animation fell too far behind - drop the rest of the time, so it doesn't fall further
+                if (ticks == MAX_TICKS_PER_FRAME) {
+                    lag = 0;
+                    break;
+                }
+                animation.tick();
+                lag -= nanosPerTick;
+                ticks++;
+                // If the tick ran another animation (like a pause screen) - the time it ran is not simulated
+                if (this.resumed) {
+                    this.resumed = false;
+                    interrupted = true;
+                    lastTime = System.nanoTime();
+                    lag = 0;
+                }
+            }
+            long frameStart = interrupted ? lastTime : startTime;
+            long showStart;
+            double alpha = Math.min(1, (double) lag / nanosPerTick);
+            if (this.renderer != null) {
+                // Record the frame, and let the render thread draw it
+                DrawingBuffer buffer = this.exchange.getBackBuffer();
+                buffer.clear();
+                animation.render(buffer, alpha);
+                this.exchange.publish();
+                this.renderer.wake();
+                showStart = System.nanoTime();
+            } else {
+                // Get a drawSurface, draw the animation on it and display it on the screen
+                DrawSurface d = this.gui.getDrawSurface();
+                animation.render(d, alpha);
+                showStart = System.nanoTime();
+                this.gui.show(d);
+                this.awaitShown();
+                frameTimings.getShowTime().record(System.nanoTime() - showStart);
+            }
+            long sleepStart = System.nanoTime();
+            // Timing
+            this.pacer.awaitNextFrame();
+            frameTimings.getFrameTime().record(showStart - frameStart);
+            frameTimings.getSleepTime().record(System.nanoTime() - sleepStart);
+        }
+        if (this.renderer != null) {
+            this.renderer.finish();
+            this.renderer = null;
+        }
+    }
+    /**
+     * Waits until the window drew the frames that were shown (the window draws them later, on its own thread).
+     */
+    private void awaitShown() {
+        try {
+            EventQueue.invokeAndWait(NO_OP);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            // Do nothing (the task does nothing)
+        }
+    }
+
+    /**
+     * Returns the times of the frames of the type of the given animation, and creates them if this type did not run
+     *  before.
+     *
+     * @param animation the animation.
+     * @return the times of the frames of the type of the animation.
+     */
+    private synchronized FrameTimings timingsOf(Animation animation) {
+        Animation inner = animation;
+        while (inner instanceof KeyPressStoppableAnimation) {
+            inner = ((KeyPressStoppableAnimation) inner).getAnimation();
+        }
+        // Anonymous classes have no simple name
+        String name = inner.getClass().getSimpleName();
+        if (name.isEmpty()) {
+            name = inner.getClass().getName();
+        }
+        FrameTimings t = this.timings.get(name);
+        if (t == null) {
+            t = new FrameTimings(name);
+            this.timings.put(name, t);
+        }
+        return t;
+    }
+
+    /**
+     * Renderer - the render thread of a pipelined animation: it draws the newest recorded frame on the window and
+     *  displays it, and sleeps until the next frame is published.
+     */
+    private class Renderer implements Runnable {
+        // The thread that draws the frames
+        private Thread thread;
+        // Indication whether the thread should go on drawing
+        private volatile boolean running;
+        // The times of the frames of the animation (the times of displaying them are recorded here)
+        private FrameTimings frameTimings;
+
+        /**
+         * Constructor - creates a new Renderer.
+         *
+         * @param frameTimings the times of the frames of the animation.
+         */
+        Renderer(FrameTimings frameTimings) {
+            this.frameTimings = frameTimings;
+        }
+        /**
+         * Starts the render thread.
+         */
+        void begin() {
+            this.running = true;
+            this.thread = new Thread(this, "Renderer");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+        /**
+         * Wakes the render thread up, after a frame was published.
+         */
+        void wake() {
+            LockSupport.unpark(this.thread);
+        }
+        /**
+         * Stops the render thread after it draws the last published frame, and waits for it to stop.
+         */
+        void finish() {
+            this.running = false;
+            this.wake();
+            try {
+                this.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        /**
+         * Draws the published frames until the thread is stopped.
+         */
+        public void run() {
+            while (true) {
+                DrawingBuffer frame = exchange.takeFrontBuffer();
+                if (frame != null) {
+                    DrawSurface d = gui.getDrawSurface();
+                    frame.replay(d);
+                    long showStart = System.nanoTime();
+                    gui.show(d);
+                    awaitShown();
+                    this.frameTimings.getShowTime().record(System.nanoTime() - showStart);
+                } else if (this.running) {
+                    LockSupport.park(this);
+                } else {
+                    return;
+                }
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * NoOp - a task that does nothing. The tasks of the thread of the window run in order, so when it runs, the
+     *  window drew all the frames that were shown before it.
+     */
+    private static class NoOp implements Runnable {
+        /**
+         * Does nothing.
+         */
+        public void run() {
+            // Do nothing
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package animation;
 
 import biuoop.DrawSurface;
-import biuoop.Sleeper;
 import sprites.SpriteCollection;
 import java.awt.Color;
 
@@ -18,37 +17,53 @@ public class CountdownAnimation implements Animation {
     private int countFrom;
     // Number to show on the screen
     private int number;
+    // Number of frames that the current number was shown
+    private int frames;
+    // Number of frames the runner displays in a second
+    private int framesPerSecond;
     // The sprites collection of the game
     private SpriteCollection gameScreen;
     // Indication to stop the animation
     private boolean stop;
 
     /**
-     * Constructor - creates a new CountdownAnimation.
+     * Constructor number 1 - creates a new CountdownAnimation for a runner that displays 60 frames in a second.
      *
      * @param numOfSeconds number of seconds to display the given gameScreen.
      * @param countFrom the number that the count starts from.
      * @param gameScreen the sprites collection of the game.
      */
     public CountdownAnimation(double numOfSeconds, int countFrom, SpriteCollection gameScreen) {
+        this(numOfSeconds, countFrom, gameScreen, AnimationRunner.BASE_TICKS_PER_SECOND);
+    }
+    /**
+     * Constructor number 2 - creates a new CountdownAnimation for a runner that displays the given number of frames
+     *  in a second.
+     *
+     * @param numOfSeconds number of seconds to display the given gameScreen.
+     * @param countFrom the number that the count starts from.
+     * @param gameScreen the sprites collection of the game.
+     * @param framesPerSecond number of frames the runner displays in a second.
+     */
+    public CountdownAnimation(double numOfSeconds, int countFrom, SpriteCollection gameScreen, int framesPerSecond) {
+        this.framesPerSecond = framesPerSecond;
         this.numOfSeconds = numOfSeconds;
         this.countFrom = countFrom;
         this.number = countFrom;
+        this.frames = 0;
         this.gameScreen = gameScreen;
         this.stop = false;
     }
     /**
      * The method displays the given gameScreen for 2 seconds, and on top of the screen it shows a countdown
      *  from 3 back to 1, where each number appears on the screen for 2/3 seconds before it is replaced with the
-     *  next one.
+     *  next one. The time is counted in frames of the runner, so the countdown does not block the runner.
      *
      * @param d a surface to draw on it.
      */
     public void doOneFrame(DrawSurface d) {
-        // Create a sleeper
-        Sleeper sleeper = new Sleeper();
         // Each number in the animation appears on the screen for 2/3 seconds
-        double millisecondsPerNumber = (this.numOfSeconds / this.countFrom) * 1000;
+        int framesPerNumber = (int) Math.round((this.numOfSeconds / this.countFrom) * this.framesPerSecond);
         // Draw all the sprites on the surface
         this.gameScreen.drawAllOn(d);
         // After the countdown reaches zero - stop the CountdownAnimation and start the game play
@@ -62,13 +77,12 @@ public class CountdownAnimation implements Animation {
             d.fillCircle(400, 25, 22);
             d.setColor(new Color(255, 255, 255));
             d.drawText(391, 38, String.valueOf(number), 35);
-            // Subtract one from the number
-            this.number--;
-        }
-        // If it is not the first frame of the animation
-        if (this.number + 1 != this.countFrom) {
-            // Wait 2/3 seconds
-            sleeper.sleepFor((long) millisecondsPerNumber);
+            // After the number was shown for 2/3 seconds - subtract one from the number
+            this.frames++;
+            if (this.frames >= framesPerNumber) {
+                this.frames = 0;
+                this.number--;
+            }
         }
     }
     /**
@@ -0,0 +1,374 @@
+package animation;
+
+import biuoop.DrawSurface;
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.util.Arrays;
+import sprites.FrameSlot;
+
+/**
+ * DrawingBuffer - a DrawSurface that records the drawing commands instead of drawing them, so they can be drawn
+ *  later (on another thread) on a real DrawSurface. The commands are kept in primitive arrays that are reused when
+ *  the buffer is cleared, so a buffer that is drawn on again and again does not allocate.
+ *
+ * A recorded frame is a snapshot of what was drawn: the positions and sizes are copied, and so are the polygons.
+ *  The images are not copied, so a buffer is a slot of a FrameExchange (or a single slot of its own): a sprite
+ *  collection keeps the image of a retained frame for each slot, and a slot is recorded into again only after its
+ *  frame was drawn.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class DrawingBuffer implements DrawSurface, FrameSlot {
+    // The codes of the commands
+    private static final byte SET_COLOR = 0;
+    private static final byte DRAW_LINE = 1;
+    private static final byte DRAW_OVAL = 2;
+    private static final byte FILL_OVAL = 3;
+    private static final byte DRAW_RECTANGLE = 4;
+    private static final byte FILL_RECTANGLE = 5;
+    private static final byte DRAW_IMAGE = 6;
+    private static final byte DRAW_CIRCLE = 7;
+    private static final byte FILL_CIRCLE = 8;
+    private static final byte DRAW_TEXT = 9;
+    private static final byte DRAW_POLYGON = 10;
+    private static final byte FILL_POLYGON = 11;
+    // Default number of commands that the arrays hold before they grow
+    private static final int DEFAULT_CAPACITY = 256;
+    // The size of the surface
+    private int width;
+    private int height;
+    // The index of the slot of the buffer, and the number of slots that are used in turn
+    private int slot;
+    private int slotCount;
+    // The codes of the recorded commands
+    private byte[] commands;
+    private int commandCount;
+    // The numeric arguments of the commands, in order
+    private int[] arguments;
+    private int argumentCount;
+    // The object arguments of the commands (colors, texts, images and polygons), in order
+    private Object[] objects;
+    private int objectCount;
+
+    /**
+     * Constructor number 1 - creates a new empty DrawingBuffer, that is a single slot.
+     *
+     * @param width the width of the surface.
+     * @param height the height of the surface.
+     */
+    public DrawingBuffer(int width, int height) {
+        this(width, height, 0, 1);
+    }
+    /**
+     * Constructor number 2 - creates a new empty DrawingBuffer, that is one of a few slots that are used in turn.
+     *
+     * @param width the width of the surface.
+     * @param height the height of the surface.
+     * @param slot the index of the slot of the buffer.
+     * @param slotCount the number of slots.
+     */
+    public DrawingBuffer(int width, int height, int slot, int slotCount) {
+        this.width = width;
+        this.height = height;
+        this.slot = slot;
+        this.slotCount = slotCount;
+        this.commands = new byte[DEFAULT_CAPACITY];
+        this.arguments = new int[DEFAULT_CAPACITY * 4];
+        this.objects = new Object[DEFAULT_CAPACITY];
+    }
+    /**
+     * Removes all the recorded commands.
+     */
+    public void clear() {
+        // Drop the references to the objects, so the buffer doesn't keep them alive
+        Arrays.fill(this.objects, 0, this.objectCount, null);
+        this.commandCount = 0;
+        this.argumentCount = 0;
+        this.objectCount = 0;
+    }
+    /**
+     * Returns the number of recorded commands.
+     *
+     * @return the number of recorded commands.
+     */
+    public int size() {
+        return this.commandCount;
+    }
+    /**
+     * Draws all the recorded commands, in order, on the given DrawSurface.
+     *
+     * @param d a surface to draw on it.
+     */
+    public void replay(DrawSurface d) {
+        int a = 0;
+        int o = 0;
+        for (int i = 0; i < this.commandCount; i++) {
+            switch (this.commands[i]) {
+                case SET_COLOR:
+                    d.setColor((Color) this.objects[o++]);
+                    break;
+                case DRAW_LINE:
+                    d.drawLine(this.arguments[a], this.arguments[a + 1], this.arguments[a + 2], this.arguments[a + 3]);
+                    a += 4;
+                    break;
+                case DRAW_OVAL:
+                    d.drawOval(this.arguments[a], this.arguments[a + 1], this.arguments[a + 2], this.arguments[a + 3]);
+                    a += 4;
+                    break;
+                case FILL_OVAL:
+                    d.fillOval(this.arguments[a], this.arguments[a + 1], this.arguments[a + 2], this.arguments[a + 3]);
+                    a += 4;
+                    break;
+                case DRAW_RECTANGLE:
+                    d.drawRectangle(this.arguments[a], this.arguments[a + 1], this.arguments[a + 2],
+                            this.arguments[a + 3]);
+                    a += 4;
+                    break;
+                case FILL_RECTANGLE:
+                    d.fillRectangle(this.arguments[a], this.arguments[a + 1], this.arguments[a + 2],
+                            this.arguments[a + 3]);
+                    a += 4;
+                    break;
+                case DRAW_IMAGE:
+                    d.drawImage(this.arguments[a], this.arguments[a + 1], (Image) this.objects[o++]);
+                    a += 2;
+                    break;
+                case DRAW_CIRCLE:
+                    d.drawCircle(this.arguments[a], this.arguments[a + 1], this.arguments[a + 2]);
+                    a += 3;
+                    break;
+                case FILL_CIRCLE:
+                    d.fillCircle(this.arguments[a], this.arguments[a + 1], this.arguments[a + 2]);
+                    a += 3;
+                    break;
+                case DRAW_TEXT:
+                    d.drawText(this.arguments[a], this.arguments[a + 1], (String) this.objects[o++],
+                            this.arguments[a + 2]);
+                    a += 3;
+                    break;
+                case DRAW_POLYGON:
+                    d.drawPolygon((Polygon) this.objects[o++]);
+                    break;
+                case FILL_POLYGON:
+                    d.fillPolygon((Polygon) this.objects[o++]);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+    /**
+     * Returns the index of the slot of the buffer.
+     *
+     * @return the index of the slot.
+     */
+    public int getSlot() {
+        return this.slot;
+    }
+    /**
+     * Returns the number of slots that are used in turn.
+     *
+     * @return the number of slots.
+     */
+    public int getSlotCount() {
+        return this.slotCount;
+    }
+    /**
+     * Returns the width of the surface.
+     *
+     * @return the width of the surface.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+    /**
+     * Returns the height of the surface.
+     *
+     * @return the height of the surface.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+    /**
+     * Records setting the color of the next drawings.
+     *
+     * @param color the color.
+     */
+    public void setColor(Color color) {
+        this.add(SET_COLOR, 0);
+        this.addObject(color);
+    }
+    /**
+     * Records drawing a line.
+     *
+     * @param x1 the x value of the start of the line.
+     * @param y1 the y value of the start of the line.
+     * @param x2 the x value of the end of the line.
+     * @param y2 the y value of the end of the line.
+     */
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.add(DRAW_LINE, 4);
+        this.addArguments(x1, y1, x2, y2);
+    }
+    /**
+     * Records drawing an oval.
+     *
+     * @param x the x value of the upper-left point of the oval.
+     * @param y the y value of the upper-left point of the oval.
+     * @param w the width of the oval.
+     * @param h the height of the oval.
+     */
+    public void drawOval(int x, int y, int w, int h) {
+        this.add(DRAW_OVAL, 4);
+        this.addArguments(x, y, w, h);
+    }
+    /**
+     * Records filling an oval.
+     *
+     * @param x the x value of the upper-left point of the oval.
+     * @param y the y value of the upper-left point of the oval.
+     * @param w the width of the oval.
+     * @param h the height of the oval.
+     */
+    public void fillOval(int x, int y, int w, int h) {
+        this.add(FILL_OVAL, 4);
+        this.addArguments(x, y, w, h);
+    }
+    /**
+     * Records drawing a rectangle.
+     *
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param w the width of the rectangle.
+     * @param h the height of the rectangle.
+     */
+    public void drawRectangle(int x, int y, int w, int h) {
+        this.add(DRAW_RECTANGLE, 4);
+        this.addArguments(x, y, w, h);
+    }
+    /**
+     * Records filling a rectangle.
+     *
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param w the width of the rectangle.
+     * @param h the height of the rectangle.
+     */
+    public void fillRectangle(int x, int y, int w, int h) {
+        this.add(FILL_RECTANGLE, 4);
+        this.addArguments(x, y, w, h);
+    }
+    /**
+     * Records drawing an image.
+     *
+     * @param x the x value of the upper-left point of the image.
+     * @param y the y value of the upper-left point of the image.
+     * @param image the image.
+     */
+    public void drawImage(int x, int y, Image image) {
+        this.add(DRAW_IMAGE, 2);
+        this.arguments[this.argumentCount++] = x;
+        this.arguments[this.argumentCount++] = y;
+        this.addObject(image);
+    }
+    /**
+     * Records drawing a circle.
+     *
+     * @param x the x value of the center of the circle.
+     * @param y the y value of the center of the circle.
+     * @param r the radius of the circle.
+     */
+    public void drawCircle(int x, int y, int r) {
+        this.add(DRAW_CIRCLE, 3);
+        this.arguments[this.argumentCount++] = x;
+        this.arguments[this.argumentCount++] = y;
+        this.arguments[this.argumentCount++] = r;
+    }
+    /**
+     * Records filling a circle.
+     *
+     * @param x the x value of the center of the circle.
+     * @param y the y value of the center of the circle.
+     * @param r the radius of the circle.
+     */
+    public void fillCircle(int x, int y, int r) {
+        this.add(FILL_CIRCLE, 3);
+        this.arguments[this.argumentCount++] = x;
+        this.arguments[this.argumentCount++] = y;
+        this.arguments[this.argumentCount++] = r;
+    }
+    /**
+     * Records drawing a text.
+     *
+     * @param x the x value of the start of the text.
+     * @param y the y value of the base line of the text.
+     * @param s the text.
+     * @param fontSize the size of the font.
+     */
+    public void drawText(int x, int y, String s, int fontSize) {
+        this.add(DRAW_TEXT, 3);
+        this.arguments[this.argumentCount++] = x;
+        this.arguments[this.argumentCount++] = y;
+        this.arguments[this.argumentCount++] = fontSize;
+        this.addObject(s);
+    }
+    /**
+     * Records drawing a polygon (a copy of it, since a polygon can change).
+     *
+     * @param p the polygon.
+     */
+    public void drawPolygon(Polygon p) {
+        this.add(DRAW_POLYGON, 0);
+        this.addObject(new Polygon(p.xpoints, p.ypoints, p.npoints));
+    }
+    /**
+     * Records filling a polygon (a copy of it, since a polygon can change).
+     *
+     * @param p the polygon.
+     */
+    public void fillPolygon(Polygon p) {
+        this.add(FILL_POLYGON, 0);
+        this.addObject(new Polygon(p.xpoints, p.ypoints, p.npoints));
+    }
+    /**
+     * Adds a command, and makes sure there is room for its numeric arguments and an object argument.
+     *
+     * @param command the code of the command.
+     * @param argumentsNeeded the number of numeric arguments of the command.
+     */
+    private void add(byte command, int argumentsNeeded) {
+        if (this.commandCount == this.commands.length) {
+            this.commands = Arrays.copyOf(this.commands, this.commands.length * 2);
+        }
+        if (this.argumentCount + argumentsNeeded > this.arguments.length) {
+            this.arguments = Arrays.copyOf(this.arguments, this.arguments.length * 2);
+        }
+        if (this.objectCount == this.objects.length) {
+            this.objects = Arrays.copyOf(this.objects, this.objects.length * 2);
+        }
+        this.commands[this.commandCount++] = command;
+    }
+    /**
+     * Adds four numeric arguments.
+     *
+     * @param a the first argument.
+     * @param b the second argument.
+     * @param c the third argument.
+     * @param e the fourth argument.
+     */
+    private void addArguments(int a, int b, int c, int e) {
+        this.arguments[this.argumentCount++] = a;
+        this.arguments[this.argumentCount++] = b;
+        this.arguments[this.argumentCount++] = c;
+        this.arguments[this.argumentCount++] = e;
+    }
+    /**
+     * Adds an object argument.
+     *
+     * @param object the argument.
+     */
+    private void addObject(Object object) {
+        this.objects[this.objectCount++] = object;
+    }
+}
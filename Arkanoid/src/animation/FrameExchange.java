@@ -0,0 +1,74 @@
+package animation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FrameExchange - three drawing buffers that one thread records frames into and another thread draws them from,
+ *  without locks (triple buffering).
+ *
+ * The producer always records into its back buffer, and the consumer always draws its front buffer. A recorded
+ *  frame is published by swapping the back buffer with the middle buffer in one atomic operation, and the consumer
+ *  takes the newest frame by swapping its front buffer with the middle buffer. So neither thread waits for the
+ *  other, a frame is never changed while it is drawn, and frames that were not taken in time are replaced by newer
+ *  ones.
+ *
+ * Each buffer is a slot (see DrawingBuffer), and the producer gets it back only when its frame is not drawn: a frame
+ *  that was replaced before it was taken, or a frame that the consumer drew before it took a newer one.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class FrameExchange {
+    // The bit of the middle slot that indicates a frame that was not taken yet, and the mask of the buffer index
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+    // The three buffers
+    private DrawingBuffer[] buffers;
+    // The index of the middle buffer (with the FRESH bit)
+    private AtomicInteger middle;
+    // The index of the buffer of the producer
+    private int back;
+    // The index of the buffer of the consumer
+    private int front;
+
+    /**
+     * Constructor - creates a new FrameExchange with three empty buffers.
+     *
+     * @param width the width of the surface.
+     * @param height the height of the surface.
+     */
+    public FrameExchange(int width, int height) {
+        this.buffers = new DrawingBuffer[3];
+        for (int i = 0; i < 3; i++) {
+            this.buffers[i] = new DrawingBuffer(width, height, i, 3);
+        }
+        this.back = 0;
+        this.middle = new AtomicInteger(1);
+        this.front = 2;
+    }
+    /**
+     * Returns the buffer that the producer records the next frame into.
+     *
+     * @return the back buffer.
+     */
+    public DrawingBuffer getBackBuffer() {
+        return this.buffers[this.back];
+    }
+    /**
+     * Publishes the back buffer as the newest frame (called by the producer). The producer gets another buffer.
+     */
+    public void publish() {
+        this.back = this.middle.getAndSet(this.back | FRESH) & INDEX;
+    }
+    /**
+     * Takes the newest frame (called by the consumer), if a frame was published since the last one was taken.
+     *
+     * @return the newest frame, or null if no new frame was published.
+     */
+    public DrawingBuffer takeFrontBuffer() {
+        if ((this.middle.get() & FRESH) == 0) {
+            return null;
+        }
+        this.front = this.middle.getAndSet(this.front) & INDEX;
+        return this.buffers[this.front];
+    }
+}
@@ -0,0 +1,117 @@
+package animation;
+
+import java.util.Arrays;
+
+/**
+ * FrameHistogram - a histogram of durations in nanoseconds, that records a duration without allocating anything, and
+ *  answers percentiles of the recorded durations.
+ *
+ * The durations are counted in buckets of logarithmic size: every power of two is split into 32 buckets, so a
+ *  duration is kept with an error of less than 1/32 of it (durations under 64 nanoseconds are kept exactly). A
+ *  percentile is reported as the highest duration of its bucket (and not more than the maximum).
+ *
+ * The methods are synchronized, so a histogram can be read (and reset) by one thread while another thread records
+ *  durations in it, like the render thread that records the times of displaying the frames.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class FrameHistogram {
+    // Number of bits of the buckets in every power of two, and the number of these buckets
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Number of buckets - enough for any non-negative long
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    // The number of durations in each bucket
+    private long[] counts;
+    // Number of durations, and the maximum duration
+    private long count;
+    private long max;
+
+    /**
+     * Constructor - creates a new empty FrameHistogram.
+     */
+    public FrameHistogram() {
+        this.counts = new long[BUCKETS];
+    }
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration, in nanoseconds (a negative duration is recorded as 0).
+     */
+    public synchronized void record(long nanos) {
+        long value = Math.max(0, nanos);
+        this.counts[bucketOf(value)]++;
+        this.count++;
+        this.max = Math.max(this.max, value);
+    }
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the number of recorded durations.
+     */
+    public synchronized long getCount() {
+        return this.count;
+    }
+    /**
+     * Returns the maximum recorded duration.
+     *
+     * @return the maximum duration, in nanoseconds (0 if nothing was recorded).
+     */
+    public synchronized long getMax() {
+        return this.max;
+    }
+    /**
+     * Returns the given percentile of the recorded durations: the duration that the given percent of the durations
+     *  are not longer than.
+     *
+     * @param percent the percent (between 0 and 100).
+     * @return the percentile, in nanoseconds (0 if nothing was recorded).
+     */
+    public synchronized long getPercentile(double percent) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil((percent / 100) * this.count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), this.max);
+            }
+        }
+        return this.max;
+    }
+    /**
+     * Removes all the recorded durations.
+     */
+    public synchronized void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.max = 0;
+    }
+    /**
+     * Returns the bucket of the given duration.
+     *
+     * @param value a non-negative duration.
+     * @return the index of the bucket.
+     */
+    private static int bucketOf(long value) {
+        // The shift that leaves the highest SUB_BUCKET_BITS + 1 bits of the value (0 for small values)
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift * SUB_BUCKETS) + (int) (value >>> shift);
+    }
+    /**
+     * Returns the highest duration in the given bucket.
+     *
+     * @param bucket the index of the bucket.
+     * @return the highest duration in the bucket.
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket / SUB_BUCKETS) - 1;
+        long top = (bucket % SUB_BUCKETS) + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,140 @@
+package animation;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FramePacer - paces the frames of an animation with System.nanoTime.
+ *
+ * The frames are due on a fixed schedule (the n-th frame is due n frame lengths after the start), so the time of a
+ *  late frame is not added to the next frames, and the rounding of the frame length does not add up. The pacer
+ *  parks the thread until a little before the deadline, and then spins (yielding) until the deadline, since parking
+ *  alone can wake up late. When the animation falls more than a frame behind, the schedule starts again from now,
+ *  instead of running the missed frames at once.
+ *
+ * The jitter (how late the pacer returned after a deadline) is kept, so the smoothness of the animation can be
+ *  checked. The lateness of a frame that fell behind is kept as its jitter too (before the schedule starts again),
+ *  and the whole frames it missed are counted.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class FramePacer {
+    // Number of nanoseconds in a second
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    // Time before the deadline in which the pacer spins instead of parking
+    private static final long SPIN_NANOS = 1000000L;
+    // Number of frames in a second
+    private int framesPerSecond;
+    // The time that the schedule started, and the number of frames since then
+    private long startTime;
+    private long frames;
+    // Statistics of the jitter: number of frames, the sum of the jitter, its maximum and its last value
+    private long jitterCount;
+    private long jitterSum;
+    private long maxJitter;
+    private long lastJitter;
+    // Number of frames that were missed because the animation fell behind
+    private long missedFrames;
+
+    /**
+     * Constructor - creates a new FramePacer.
+     *
+     * @param framesPerSecond number of frames in a second.
+     */
+    public FramePacer(int framesPerSecond) {
+        this.framesPerSecond = framesPerSecond;
+        this.start();
+    }
+    /**
+     * Starts the schedule from now: the next frame is due one frame length from now.
+     */
+    public void start() {
+        this.startTime = System.nanoTime();
+        this.frames = 0;
+    }
+    /**
+     * Waits until the next frame is due.
+     */
+    public void awaitNextFrame() {
+        this.frames++;
+        long deadline = this.startTime + ((this.frames * NANOS_PER_SECOND) / this.framesPerSecond);
+        long now = System.nanoTime();
+        long frameLength = NANOS_PER_SECOND / this.framesPerSecond;
+        // If the animation fell more than a frame behind - count the late frame and the frames it missed, and start
+        //  the schedule again from now
+        if (now - deadline > frameLength) {
+            this.recordJitter(now - deadline);
+            this.missedFrames += (now - deadline) / frameLength;
+            this.startTime = now;
+            this.frames = 0;
+            return;
+        }
+        // Park until a little before the deadline
+        while (deadline - now > SPIN_NANOS) {
+            LockSupport.parkNanos(deadline - now - SPIN_NANOS);
+            now = System.nanoTime();
+        }
+        // Spin until the deadline
+        while (deadline - now > 0) {
+            Thread.yield();
+            now = System.nanoTime();
+        }
+        this.recordJitter(now - deadline);
+    }
+    /**
+     * Returns the jitter of the last frame: how late the pacer returned after its deadline.
+     *
+     * @return the jitter of the last frame, in nanoseconds.
+     */
+    public long getLastJitter() {
+        return this.lastJitter;
+    }
+    /**
+     * Returns the maximum jitter since the statistics were reset.
+     *
+     * @return the maximum jitter, in nanoseconds.
+     */
+    public long getMaxJitter() {
+        return this.maxJitter;
+    }
+    /**
+     * Returns the number of frames that were missed since the statistics were reset (whole frame lengths that the
+     *  animation fell behind).
+     *
+     * @return the number of missed frames.
+     */
+    public long getMissedFrames() {
+        return this.missedFrames;
+    }
+    /**
+     * Returns the average jitter since the statistics were reset.
+     *
+     * @return the average jitter, in nanoseconds (0 if no frame was paced).
+     */
+    public double getAverageJitter() {
+        if (this.jitterCount == 0) {
+            return 0;
+        }
+        return (double) this.jitterSum / this.jitterCount;
+    }
+    /**
+     * Resets the statistics of the jitter.
+     */
+    public void resetJitter() {
+        this.jitterCount = 0;
+        this.jitterSum = 0;
+        this.maxJitter = 0;
+        this.lastJitter = 0;
+        this.missedFrames = 0;
+    }
+    /**
+     * Adds the jitter of a frame to the statistics.
+     *
+     * @param jitter how late the frame is, in nanoseconds.
+     */
+    private void recordJitter(long jitter) {
+        this.lastJitter = jitter;
+        this.maxJitter = Math.max(this.maxJitter, jitter);
+        this.jitterSum += jitter;
+        this.jitterCount++;
+    }
+}
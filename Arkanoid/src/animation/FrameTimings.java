@@ -0,0 +1,92 @@
+package animation;
+
+/**
+ * FrameTimings - the times of the frames of one type of animation: the time of doing a frame (doOneFrame, or the
+ *  ticks and the drawing of a stepped animation), the time of displaying it on the screen (gui.show), and the time
+ *  of sleeping until the next frame. Each of them is kept in a FrameHistogram.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class FrameTimings {
+    // Number of nanoseconds in a millisecond
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    // The name of the type of animation
+    private String name;
+    // The times of doing, displaying and sleeping
+    private FrameHistogram frameTime;
+    private FrameHistogram showTime;
+    private FrameHistogram sleepTime;
+
+    /**
+     * Constructor - creates new empty FrameTimings.
+     *
+     * @param name the name of the type of animation.
+     */
+    public FrameTimings(String name) {
+        this.name = name;
+        this.frameTime = new FrameHistogram();
+        this.showTime = new FrameHistogram();
+        this.sleepTime = new FrameHistogram();
+    }
+    /**
+     * Returns the name of the type of animation.
+     *
+     * @return the name of the type of animation.
+     */
+    public String getName() {
+        return this.name;
+    }
+    /**
+     * Returns the times of doing the frames.
+     *
+     * @return the histogram of the times of doing the frames.
+     */
+    public FrameHistogram getFrameTime() {
+        return this.frameTime;
+    }
+    /**
+     * Returns the times of displaying the frames. In pipelined mode they are recorded by the render thread.
+     *
+     * @return the histogram of the times of displaying the frames.
+     */
+    public FrameHistogram getShowTime() {
+        return this.showTime;
+    }
+    /**
+     * Returns the times of sleeping until the next frames.
+     *
+     * @return the histogram of the times of sleeping.
+     */
+    public FrameHistogram getSleepTime() {
+        return this.sleepTime;
+    }
+    /**
+     * Removes all the recorded times.
+     */
+    public void reset() {
+        this.frameTime.reset();
+        this.showTime.reset();
+        this.sleepTime.reset();
+    }
+    /**
+     * Returns a line with the number of frames, and the percentiles (p50, p99, p99.9 and the maximum) of the times,
+     *  in milliseconds.
+     *
+     * @return the summary of the times.
+     */
+    public String toString() {
+        return this.name + ": " + this.frameTime.getCount() + " frames, frame " + summary(this.frameTime)
+                + ", show " + summary(this.showTime) + ", sleep " + summary(this.sleepTime);
+    }
+    /**
+     * Returns the percentiles of the given histogram, in milliseconds.
+     *
+     * @param histogram the histogram.
+     * @return the percentiles of the histogram.
+     */
+    private static String summary(FrameHistogram histogram) {
+        return String.format("p50=%.3f p99=%.3f p99.9=%.3f max=%.3f ms",
+                histogram.getPercentile(50) / NANOS_PER_MILLI, histogram.getPercentile(99) / NANOS_PER_MILLI,
+                histogram.getPercentile(99.9) / NANOS_PER_MILLI, histogram.getMax() / NANOS_PER_MILLI);
+    }
+}
@@ -1,12 +1,10 @@
 package animation;
 
 import biuoop.DrawSurface;
+import images.ImageCache;
 import score.HighScoresTable;
-import javax.imageio.ImageIO;
 import java.awt.Color;
 import java.awt.Image;
-import java.io.IOException;
-import java.io.InputStream;
 
 /**
  * HighScoresAnimation - HighScoresAnimation is in charge of the graphical representation of the high-scores table.
@@ -59,31 +57,11 @@ public class HighScoresAnimation implements Animation {
      */
     public boolean shouldStop() { return this.stop; }
     /**
-     * Loads the image for the background.
+     * Loads the image for the background (from the shared image cache), cropped to the part that is on the screen.
      *
      * @return an image for the background.
      */
     public Image loadImage() {
-        // Load the image data into an java.awt.Image object
-        Image img = null;
-        InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream("background_images/triangles.jpg");
-        try {
-            if (is != null) {
-                img = ImageIO.read(is);
-            } else {
-                System.err.println("Image file not found.");
-            }
-        } catch (IOException e) {
-            System.err.println("Failed loading background image.");
-        } finally {
-            try {
-                if (is != null) {
-                    is.close();
-                }
-            } catch (IOException e) {
-                System.err.println("Failed closing Image file.");
-            }
-        }
-        return img;
+        return ImageCache.getInstance().getPrepared("background_images/triangles.jpg", 800, 600, false);
     }
 }
@@ -54,6 +54,14 @@ public class KeyPressStoppableAnimation implements Animation {
             this.isAlreadyPressed = false;
         }
     }
+    /**
+     * Returns the animation that this animation wraps.
+     *
+     * @return the wrapped animation.
+     */
+    public Animation getAnimation() {
+        return this.animation;
+    }
     /**
      * This method is in charge of stopping condition.
      *
@@ -0,0 +1,24 @@
+package animation;
+
+import biuoop.DrawSurface;
+
+/**
+ * The SteppedAnimation interface will be used by animations that can advance their state without drawing it, so
+ *  the AnimationRunner can run them in constant ticks, apart from the frames it displays.
+ *
+ * @author Ayelet Tennenboim
+ */
+public interface SteppedAnimation extends Animation {
+    /**
+     * This method advances the animation by one tick, without drawing it.
+     */
+    void tick();
+    /**
+     * This method draws the state of the animation at the given part of the way from the previous tick to the
+     *  current tick.
+     *
+     * @param d a surface to draw on it.
+     * @param alpha the part of the way (0 for the previous tick, 1 for the current tick).
+     */
+    void render(DrawSurface d, double alpha);
+}
@@ -3,10 +3,8 @@ package animation.menu;
 import animation.AnimationRunner;
 import biuoop.DrawSurface;
 import biuoop.KeyboardSensor;
-import javax.imageio.ImageIO;
+import images.ImageCache;
 import java.awt.Image;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -127,31 +125,11 @@ public class MenuAnimation<T> implements Menu<T> {
         this.subHashMap.put(key, subMenu);
     }
     /**
-     * Loads the image for the background.
+     * Loads the image for the background (from the shared image cache), cropped to the part that is on the screen.
      *
      * @return an image for the background.
      */
     public Image loadImage() {
-        // Load the image data into an java.awt.Image object
-        Image img = null;
-        InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream("background_images/flowers.jpg");
-        try {
-            if (is != null) {
-                img = ImageIO.read(is);
-            } else {
-                System.err.println("Image file not found.");
-            }
-        } catch (IOException e) {
-            System.err.println("Failed loading background image.");
-        } finally {
-            try {
-                if (is != null) {
-                    is.close();
-                }
-            } catch (IOException e) {
-                System.err.println("Failed closing Image file.");
-            }
-        }
-        return img;
+        return ImageCache.getInstance().getPrepared("background_images/flowers.jpg", 800, 600, false);
     }
 }
\ No newline at end of file
@@ -0,0 +1,343 @@
+package collisiondetection;
+
+import geometricshapes.Rectangle;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BoundingVolumeHierarchy - a tree of bounding boxes over collidables that do not move (the blocks of a level and
+ *  the borders of the screen). Every node holds the box around all the collidables under it, so a query only goes
+ *  down the nodes whose box the trajectory passes through, and visits them in the order the trajectory enters
+ *  them - the cost of a query grows with the log of the number of collidables.
+ *
+ * The tree is built once from all the collidables. When a collidable is removed, the boxes on its path to the root
+ *  are shrunk to the collidables that are left, so the tree is never rebuilt. The tree is kept in arrays (a node is
+ *  an index), and a query does not change it, so several queries can run at the same time.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class BoundingVolumeHierarchy {
+    // Maximum number of collidables in a leaf
+    private static final int LEAF_SIZE = 4;
+    // The boxes are grown by this margin, so points on a side of a box are found from both sides of it
+    private static final double EPSILON = 0.000001;
+    // Returned by entryTime() when the trajectory misses a node
+    private static final double MISS = -1;
+    // The collidables (null after they are removed), their insertion order, their boxes and their leaves
+    private Collidable[] items;
+    private int[] orders;
+    private double[] itemLeft;
+    private double[] itemTop;
+    private double[] itemRight;
+    private double[] itemBottom;
+    private int[] itemLeaf;
+    // The index of each collidable in the items arrays
+    private Map<Collidable, Integer> indexes;
+    // The boxes of the nodes
+    private double[] left;
+    private double[] top;
+    private double[] right;
+    private double[] bottom;
+    // The children of each node (-1 for a leaf), and its parent (-1 for the root)
+    private int[] firstChild;
+    private int[] secondChild;
+    private int[] parent;
+    // The range of items of each leaf
+    private int[] start;
+    private int[] end;
+    // Number of collidables that are left under each node
+    private int[] live;
+    // Number of nodes in use
+    private int nodes;
+
+    /**
+     * Constructor - builds the tree over the given collidables.
+     *
+     * @param collidables the collidables (they should not move).
+     * @param insertionOrders the insertion order of each collidable, that is given back to the visitors.
+     */
+    public BoundingVolumeHierarchy(List<Collidable> collidables, List<Integer> insertionOrders) {
+        int n = collidables.size();
+        this.indexes = new HashMap<Collidable, Integer>();
+        // Sort the collidables into the leaves through an array of their indexes
+        Integer[] sorted = new Integer[n];
+        double[] boxes = new double[4 * n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+            Rectangle rect = collidables.get(i).getCollisionRectangle();
+            boxes[4 * i] = rect.getUpperLeft().getX();
+            boxes[(4 * i) + 1] = rect.getUpperLeft().getY();
+            boxes[(4 * i) + 2] = rect.getUpperLeft().getX() + rect.getWidth();
+            boxes[(4 * i) + 3] = rect.getUpperLeft().getY() + rect.getHeight();
+        }
+        // A binary tree with up to LEAF_SIZE items in a leaf has less than 2n nodes
+        int capacity = Math.max(1, 2 * n);
+        this.left = new double[capacity];
+        this.top = new double[capacity];
+        this.right = new double[capacity];
+        this.bottom = new double[capacity];
+        this.firstChild = new int[capacity];
+        this.secondChild = new int[capacity];
+        this.parent = new int[capacity];
+        this.start = new int[capacity];
+        this.end = new int[capacity];
+        this.live = new int[capacity];
+        this.nodes = 0;
+        this.build(sorted, boxes, 0, n, -1);
+        // Keep the collidables in the order of the leaves
+        this.items = new Collidable[n];
+        this.orders = new int[n];
+        this.itemLeft = new double[n];
+        this.itemTop = new double[n];
+        this.itemRight = new double[n];
+        this.itemBottom = new double[n];
+        this.itemLeaf = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = sorted[i];
+            this.items[i] = collidables.get(j);
+            this.orders[i] = insertionOrders.get(j);
+            this.itemLeft[i] = boxes[4 * j];
+            this.itemTop[i] = boxes[(4 * j) + 1];
+            this.itemRight[i] = boxes[(4 * j) + 2];
+            this.itemBottom[i] = boxes[(4 * j) + 3];
+            this.indexes.put(this.items[i], i);
+        }
+        for (int node = 0; node < this.nodes; node++) {
+            if (this.firstChild[node] < 0) {
+                for (int i = this.start[node]; i < this.end[node]; i++) {
+                    this.itemLeaf[i] = node;
+                }
+            }
+        }
+    }
+    /**
+     * Checks whether the given collidable is in the tree.
+     *
+     * @param c the given collidable.
+     * @return true if the collidable is in the tree, false otherwise.
+     */
+    public boolean contains(Collidable c) {
+        return this.indexes.containsKey(c);
+    }
+    /**
+     * Removes the given collidable from the tree, and shrinks the boxes on its path to the root.
+     *
+     * @param c the given collidable.
+     * @return true if the collidable was in the tree, false otherwise.
+     */
+    public boolean remove(Collidable c) {
+        Integer index = this.indexes.remove(c);
+        if (index == null) {
+            return false;
+        }
+        this.items[index] = null;
+        for (int node = this.itemLeaf[index]; node >= 0; node = this.parent[node]) {
+            this.live[node]--;
+            this.refit(node);
+        }
+        return true;
+    }
+    /**
+     * Goes over the nodes whose box the trajectory from (x1, y1) to (x2, y2) passes through, nearer nodes first, and
+     *  visits the collidables in their leaves.
+     *
+     * @param x1 the x value of the start of the trajectory.
+     * @param y1 the y value of the start of the trajectory.
+     * @param x2 the x value of the end of the trajectory.
+     * @param y2 the y value of the end of the trajectory.
+     * @param radius the radius of the moving object (0 for a point).
+     * @param visitor the visitor of the collidables.
+     */
+    public void traverse(double x1, double y1, double x2, double y2, double radius, CollidableVisitor visitor) {
+        if (this.nodes == 0) {
+            return;
+        }
+        double t = this.entryTime(0, x1, y1, x2 - x1, y2 - y1, radius);
+        if (t != MISS) {
+            this.visitNode(0, t, x1, y1, x2 - x1, y2 - y1, radius, visitor);
+        }
+    }
+    /**
+     * Visits the collidables under a node that the trajectory enters.
+     *
+     * @param node the node.
+     * @param tEnter the part of the trajectory at which it enters the box of the node.
+     * @param x1 the x value of the start of the trajectory.
+     * @param y1 the y value of the start of the trajectory.
+     * @param dx the change in position of the trajectory on the x axis.
+     * @param dy the change in position of the trajectory on the y axis.
+     * @param radius the radius of the moving object.
+     * @param visitor the visitor of the collidables.
+     */
+    private void visitNode(int node, double tEnter, double x1, double y1, double dx, double dy, double radius,
+                           CollidableVisitor visitor) {
+        if (visitor.isDone(tEnter)) {
+            return;
+        }
+        // A leaf - visit the collidables that are left in it
+        if (this.firstChild[node] < 0) {
+            for (int i = this.start[node]; i < this.end[node]; i++) {
+                if (this.items[i] != null) {
+                    visitor.visit(this.items[i], this.orders[i]);
+                }
+            }
+            return;
+        }
+        // Visit the child that the trajectory enters first before the other one
+        int first = this.firstChild[node];
+        int second = this.secondChild[node];
+        double tFirst = this.entryTime(first, x1, y1, dx, dy, radius);
+        double tSecond = this.entryTime(second, x1, y1, dx, dy, radius);
+        if ((tSecond != MISS) && ((tFirst == MISS) || (tSecond < tFirst))) {
+            int swap = first;
+            first = second;
+            second = swap;
+            double swapT = tFirst;
+            tFirst = tSecond;
+            tSecond = swapT;
+        }
+        if (tFirst != MISS) {
+            this.visitNode(first, tFirst, x1, y1, dx, dy, radius, visitor);
+        }
+        if (tSecond != MISS) {
+            this.visitNode(second, tSecond, x1, y1, dx, dy, radius, visitor);
+        }
+    }
+    /**
+     * Finds the part of the trajectory at which it enters the box of a node grown by the radius (the slab test).
+     *
+     * @param node the node.
+     * @param x1 the x value of the start of the trajectory.
+     * @param y1 the y value of the start of the trajectory.
+     * @param dx the change in position of the trajectory on the x axis.
+     * @param dy the change in position of the trajectory on the y axis.
+     * @param radius the radius of the moving object.
+     * @return the part of the trajectory (0 if it starts in the box), or MISS if it does not pass through the box.
+     */
+    private double entryTime(int node, double x1, double y1, double dx, double dy, double radius) {
+        if (this.live[node] == 0) {
+            return MISS;
+        }
+        double grow = radius + EPSILON;
+        double tNear = 0;
+        double tFar = 1;
+        if (dx == 0) {
+            if ((x1 < this.left[node] - grow) || (x1 > this.right[node] + grow)) {
+                return MISS;
+            }
+        } else {
+            double t1 = (this.left[node] - grow - x1) / dx;
+            double t2 = (this.right[node] + grow - x1) / dx;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if ((y1 < this.top[node] - grow) || (y1 > this.bottom[node] + grow)) {
+                return MISS;
+            }
+        } else {
+            double t1 = (this.top[node] - grow - y1) / dy;
+            double t2 = (this.bottom[node] + grow - y1) / dy;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+        }
+        return (tNear > tFar) ? MISS : tNear;
+    }
+    /**
+     * Builds the node of the given range of collidables: a leaf if the range is small, otherwise a node whose
+     *  children split the range at the median of the longest axis.
+     *
+     * @param sorted the indexes of the collidables (the range is sorted in place).
+     * @param boxes the boxes of the collidables (left, top, right, bottom of each one).
+     * @param from the first index in the range.
+     * @param to the index after the range.
+     * @param parentNode the parent of the new node (-1 for the root).
+     * @return the new node.
+     */
+    private int build(Integer[] sorted, final double[] boxes, int from, int to, int parentNode) {
+        int node = this.nodes++;
+        this.parent[node] = parentNode;
+        this.firstChild[node] = -1;
+        this.secondChild[node] = -1;
+        this.start[node] = from;
+        this.end[node] = to;
+        this.live[node] = to - from;
+        // The box of the node, and the box of the centers of its collidables
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double minCenterX = Double.POSITIVE_INFINITY;
+        double minCenterY = Double.POSITIVE_INFINITY;
+        double maxCenterX = Double.NEGATIVE_INFINITY;
+        double maxCenterY = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            int j = 4 * sorted[i];
+            minX = Math.min(minX, boxes[j]);
+            minY = Math.min(minY, boxes[j + 1]);
+            maxX = Math.max(maxX, boxes[j + 2]);
+            maxY = Math.max(maxY, boxes[j + 3]);
+            minCenterX = Math.min(minCenterX, boxes[j] + boxes[j + 2]);
+            minCenterY = Math.min(minCenterY, boxes[j + 1] + boxes[j + 3]);
+            maxCenterX = Math.max(maxCenterX, boxes[j] + boxes[j + 2]);
+            maxCenterY = Math.max(maxCenterY, boxes[j + 1] + boxes[j + 3]);
+        }
+        this.left[node] = minX;
+        this.top[node] = minY;
+        this.right[node] = maxX;
+        this.bottom[node] = maxY;
+        if (to - from <= LEAF_SIZE) {
+            return node;
+        }
+        // Sort the range by the centers on the longest axis, and split it in the middle
+        final int axis = (maxCenterX - minCenterX >= maxCenterY - minCenterY) ? 0 : 1;
+        Arrays.sort(sorted, from, to, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(boxes[(4 * a) + axis] + boxes[(4 * a) + axis + 2],
+                        boxes[(4 * b) + axis] + boxes[(4 * b) + axis + 2]);
+            }
+        });
+        int middle = (from + to) / 2;
+        this.firstChild[node] = this.build(sorted, boxes, from, middle, node);
+        this.secondChild[node] = this.build(sorted, boxes, middle, to, node);
+        return node;
+    }
+    /**
+     * Shrinks the box of a node to the collidables that are left under it.
+     *
+     * @param node the node.
+     */
+    private void refit(int node) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        if (this.firstChild[node] < 0) {
+            for (int i = this.start[node]; i < this.end[node]; i++) {
+                if (this.items[i] != null) {
+                    minX = Math.min(minX, this.itemLeft[i]);
+                    minY = Math.min(minY, this.itemTop[i]);
+                    maxX = Math.max(maxX, this.itemRight[i]);
+                    maxY = Math.max(maxY, this.itemBottom[i]);
+                }
+            }
+        } else {
+            int[] children = {this.firstChild[node], this.secondChild[node]};
+            for (int child : children) {
+                if (this.live[child] > 0) {
+                    minX = Math.min(minX, this.left[child]);
+                    minY = Math.min(minY, this.top[child]);
+                    maxX = Math.max(maxX, this.right[child]);
+                    maxY = Math.max(maxY, this.bottom[child]);
+                }
+            }
+        }
+        this.left[node] = minX;
+        this.top[node] = minY;
+        this.right[node] = maxX;
+        this.bottom[node] = maxY;
+    }
+}
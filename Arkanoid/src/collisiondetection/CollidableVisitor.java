@@ -0,0 +1,25 @@
+package collisiondetection;
+
+/**
+ * The CollidableVisitor interface will be used by the queries that go over the collidables near a trajectory, in
+ *  the order the trajectory reaches them (the collidable indexes: UniformGrid and BoundingVolumeHierarchy).
+ *
+ * @author Ayelet Tennenboim
+ */
+public interface CollidableVisitor {
+    /**
+     * Checks whether the query is over before entering the next part of the index (a cell or a node).
+     *
+     * @param tEnter the part of the trajectory (between 0 and 1) at which the next part of the index is entered.
+     * @return true if the query is over and that part of the index should be skipped, false otherwise.
+     */
+    boolean isDone(double tEnter);
+    /**
+     * Visits a collidable that may be near the trajectory. A collidable that spreads over several parts of the
+     *  index may be visited more than once.
+     *
+     * @param c the collidable.
+     * @param order the insertion order of the collidable.
+     */
+    void visit(Collidable c, int order);
+}
@@ -0,0 +1,21 @@
+package collisiondetection;
+
+import sprites.ball.Velocity;
+
+/**
+ * The MovingCollidable interface will be used by collidables that change their location during the game, like the
+ *  paddle.
+ *
+ * A ball is swept against a moving collidable with their relative velocity, as if the collidable moved to its
+ *  current location during the ball's step - so the collidable can't jump over the ball or into it.
+ *
+ * @author Ayelet Tennenboim
+ */
+public interface MovingCollidable extends Collidable {
+    /**
+     * Returns the change in position of the collidable in its last move (per frame).
+     *
+     * @return the change in position of the collidable in its last move.
+     */
+    Velocity getVelocity();
+}
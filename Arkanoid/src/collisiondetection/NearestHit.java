@@ -0,0 +1,307 @@
+package collisiondetection;
+
+import geometricshapes.Point;
+import geometricshapes.Rectangle;
+import geometricshapes.SlabIntersection;
+import geometricshapes.SweptCircle;
+import sprites.ball.Velocity;
+
+/**
+ * NearestHit - the closest collision of a moving object (a point or a circle) along its trajectory: the collidable,
+ *  the time of impact, the contact point and the contact normal.
+ *
+ * The game environment fills it while it goes over the collidables near the trajectory. Each collidable is tested
+ *  once, the hits are compared by their time of impact t along the trajectory (no square roots), and collidables
+ *  whose bounding box is out of the part of the trajectory before the closest hit so far are skipped. A NearestHit
+ *  is meant to be kept and reused for many queries, so a query does not allocate any objects.
+ *
+ * A circle is swept against moving collidables with the relative velocity, as if the collidable moved to its
+ *  current location during the step.
+ *
+ * The tiles of a tile map are tested by their cell, so no object is needed for a tile until it is hit: the
+ *  collidable of a tile hit is asked from its tile map only when getCollidable() is called.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class NearestHit implements CollidableVisitor {
+    // Cells that are entered after the closest hit (plus this margin) can't hold a closer one
+    private static final double MARGIN = 0.000001;
+    // The trajectory: from (x1, y1) to (x1 + dx, y1 + dy)
+    private double x1;
+    private double y1;
+    private double dx;
+    private double dy;
+    // The radius of the moving object (0 for a point)
+    private double radius;
+    // The part of a frame that the trajectory takes
+    private double timeLeft;
+    // The closest hit so far (a collidable, or a tile of a tile map)
+    private boolean found;
+    private Collidable collidable;
+    private TileCollidables tiles;
+    private int cell;
+    private int order;
+    private double t;
+    private double normalX;
+    private double normalY;
+    private double motionX;
+    private double motionY;
+    private Point point;
+
+    /**
+     * Constructor - creates a new empty NearestHit.
+     */
+    public NearestHit() {
+        this.point = new Point(0, 0);
+        this.found = false;
+    }
+    /**
+     * Starts a new query of a point moving from (x1, y1) to (x2, y2), and forgets the previous hit.
+     *
+     * @param startX the x value of the start of the trajectory.
+     * @param startY the y value of the start of the trajectory.
+     * @param endX the x value of the end of the trajectory.
+     * @param endY the y value of the end of the trajectory.
+     */
+    public void start(double startX, double startY, double endX, double endY) {
+        this.start(startX, startY, endX, endY, 0, 1);
+    }
+    /**
+     * Starts a new query of a circle whose center moves from (x1, y1) to (x2, y2), and forgets the previous hit.
+     *
+     * @param startX the x value of the start of the trajectory.
+     * @param startY the y value of the start of the trajectory.
+     * @param endX the x value of the end of the trajectory.
+     * @param endY the y value of the end of the trajectory.
+     * @param r the radius of the circle (0 for a point).
+     * @param frameTime the part of a frame that the trajectory takes (1 for a whole step).
+     */
+    public void start(double startX, double startY, double endX, double endY, double r, double frameTime) {
+        this.x1 = startX;
+        this.y1 = startY;
+        this.dx = endX - startX;
+        this.dy = endY - startY;
+        this.radius = r;
+        this.timeLeft = frameTime;
+        this.found = false;
+        this.collidable = null;
+        this.tiles = null;
+        this.t = Double.POSITIVE_INFINITY;
+    }
+    /**
+     * Checks whether a closer hit may still be found after the given part of the trajectory.
+     *
+     * @param tEnter a part of the trajectory (between 0 and 1).
+     * @return true if the closest hit is before tEnter, false otherwise.
+     */
+    public boolean isDone(double tEnter) {
+        return this.found && (tEnter > this.t + MARGIN);
+    }
+    /**
+     * Tests the given collidable, and keeps it if the trajectory hits it before the closest hit so far. When two
+     *  collidables are hit at the same time, the one with the lower insertion order is kept.
+     *
+     * @param c the collidable.
+     * @param insertionOrder the order in which the collidable was added to the game environment.
+     */
+    public void visit(Collidable c, int insertionOrder) {
+        // If the collidable was already chosen (it is in more than one cell)
+        if (c == this.collidable) {
+            return;
+        }
+        // The motion of the collidable during the trajectory
+        double mx = 0;
+        double my = 0;
+        if (c instanceof MovingCollidable) {
+            Velocity v = ((MovingCollidable) c).getVelocity();
+            mx = v.getDx() * this.timeLeft;
+            my = v.getDy() * this.timeLeft;
+        }
+        // The rectangle where it was at the start of the trajectory
+        Rectangle rect = c.getCollisionRectangle();
+        double left = rect.getUpperLeft().getX() - mx;
+        double top = rect.getUpperLeft().getY() - my;
+        this.test(c, null, 0, insertionOrder, left, top, left + rect.getWidth(), top + rect.getHeight(), mx, my);
+    }
+    /**
+     * Tests a tile of a tile map, and keeps it if the trajectory hits it before the closest hit so far. When two
+     *  collidables are hit at the same time, the one with the lower insertion order is kept.
+     *
+     * @param tileMap the tile map.
+     * @param tileCell the cell of the tile in the tile map.
+     * @param insertionOrder the insertion order of the tile.
+     * @param left the x value of the left side of the tile.
+     * @param top the y value of the top side of the tile.
+     * @param right the x value of the right side of the tile.
+     * @param bottom the y value of the bottom side of the tile.
+     */
+    public void visitTile(TileCollidables tileMap, int tileCell, int insertionOrder, double left, double top,
+                          double right, double bottom) {
+        // If the tile was already chosen (it is near more than one cell of the trajectory)
+        if ((tileMap == this.tiles) && (tileCell == this.cell)) {
+            return;
+        }
+        this.test(null, tileMap, tileCell, insertionOrder, left, top, right, bottom, 0, 0);
+    }
+    /**
+     * Tests a rectangle (where it was at the start of the trajectory), and keeps it if the trajectory hits it before
+     *  the closest hit so far.
+     *
+     * @param c the collidable of the rectangle (null for a tile).
+     * @param tileMap the tile map of the rectangle (null for a collidable).
+     * @param tileCell the cell of the tile in the tile map.
+     * @param insertionOrder the insertion order of the rectangle.
+     * @param left the x value of the left side of the rectangle.
+     * @param top the y value of the top side of the rectangle.
+     * @param right the x value of the right side of the rectangle.
+     * @param bottom the y value of the bottom side of the rectangle.
+     * @param mx the motion of the rectangle on the x axis during the trajectory.
+     * @param my the motion of the rectangle on the y axis during the trajectory.
+     */
+    private void test(Collidable c, TileCollidables tileMap, int tileCell, int insertionOrder, double left,
+                      double top, double right, double bottom, double mx, double my) {
+        // The trajectory relative to the collidable
+        double relativeDx = this.dx - mx;
+        double relativeDy = this.dy - my;
+        // Skip the collidable if its bounding box is out of the part of the trajectory before the closest hit
+        double reach = Math.min(this.t, 1);
+        double endX = this.x1 + (reach * relativeDx);
+        double endY = this.y1 + (reach * relativeDy);
+        if ((left > Math.max(this.x1, endX) + this.radius) || (right < Math.min(this.x1, endX) - this.radius)
+                || (top > Math.max(this.y1, endY) + this.radius)
+                || (bottom < Math.min(this.y1, endY) - this.radius)) {
+            return;
+        }
+        double x2 = this.x1 + relativeDx;
+        double y2 = this.y1 + relativeDy;
+        double hitT;
+        if (this.radius == 0) {
+            hitT = SlabIntersection.entryTime(this.x1, this.y1, x2, y2, left, top, right, bottom);
+        } else {
+            hitT = SweptCircle.entryTime(this.x1, this.y1, x2, y2, this.radius, left, top, right, bottom);
+        }
+        // If the collidable is not in the trajectory, or it is hit after the closest hit so far
+        if ((hitT < 0) || (hitT > this.t) || ((hitT == this.t) && (insertionOrder > this.order))) {
+            return;
+        }
+        this.found = true;
+        this.collidable = c;
+        this.tiles = tileMap;
+        this.cell = tileCell;
+        this.order = insertionOrder;
+        this.t = hitT;
+        this.motionX = mx;
+        this.motionY = my;
+        // The center at the time of impact (relative to the collidable) and its closest point on the rectangle
+        double centerX = this.x1 + (hitT * relativeDx);
+        double centerY = this.y1 + (hitT * relativeDy);
+        double contactX = Math.max(left, Math.min(right, centerX));
+        double contactY = Math.max(top, Math.min(bottom, centerY));
+        if (this.radius == 0) {
+            // A point is on the side it hits
+            int face = SlabIntersection.entryFace(this.x1, this.y1, x2, y2, left, top, right, bottom, hitT);
+            this.normalX = (face == SlabIntersection.LEFT) ? -1 : ((face == SlabIntersection.RIGHT) ? 1 : 0);
+            this.normalY = (face == SlabIntersection.TOP) ? -1 : ((face == SlabIntersection.BOTTOM) ? 1 : 0);
+            contactX = (this.normalX < 0) ? left : ((this.normalX > 0) ? right : centerX);
+            contactY = (this.normalY < 0) ? top : ((this.normalY > 0) ? bottom : centerY);
+        } else if ((centerX == contactX) && (centerY == contactY)) {
+            // The center is inside the rectangle - use the side it is closest to
+            this.normalX = SweptCircle.penetrationNormalX(centerX, centerY, left, top, right, bottom);
+            this.normalY = SweptCircle.penetrationNormalY(centerX, centerY, left, top, right, bottom);
+            contactX = (this.normalX < 0) ? left : ((this.normalX > 0) ? right : centerX);
+            contactY = (this.normalY < 0) ? top : ((this.normalY > 0) ? bottom : centerY);
+        } else {
+            double length = Math.sqrt(((centerX - contactX) * (centerX - contactX))
+                    + ((centerY - contactY) * (centerY - contactY)));
+            this.normalX = (centerX - contactX) / length;
+            this.normalY = (centerY - contactY) / length;
+        }
+        // The contact point, on the collidable where it is now
+        this.point.setX(contactX + mx);
+        this.point.setY(contactY + my);
+    }
+    /**
+     * Checks whether a hit was found.
+     *
+     * @return true if the trajectory hits a collidable, false otherwise.
+     */
+    public boolean hasHit() {
+        return this.found;
+    }
+    /**
+     * Gets the collidable that is hit.
+     *
+     * @return the collidable that is hit, or null if there is no hit.
+     */
+    public Collidable getCollidable() {
+        if (this.found && (this.tiles != null)) {
+            return this.tiles.getTile(this.cell);
+        }
+        return this.collidable;
+    }
+    /**
+     * Gets the time of impact: the part of the trajectory (between 0 and 1) at which the hit occurs.
+     *
+     * @return the parameter t of the hit.
+     */
+    public double getT() {
+        return this.t;
+    }
+    /**
+     * Gets the x value of the center of the moving object at the time of impact.
+     *
+     * @return the x value of the center at the time of impact.
+     */
+    public double getCenterX() {
+        return this.x1 + (this.t * this.dx);
+    }
+    /**
+     * Gets the y value of the center of the moving object at the time of impact.
+     *
+     * @return the y value of the center at the time of impact.
+     */
+    public double getCenterY() {
+        return this.y1 + (this.t * this.dy);
+    }
+    /**
+     * Gets the contact point on the collidable (where the collidable is now). For a point, it is the point at which
+     *  the trajectory hits the collidable. The same point object is reused by the next query.
+     *
+     * @return the contact point.
+     */
+    public Point getPoint() {
+        return this.point;
+    }
+    /**
+     * Gets the x value of the contact normal: the unit vector from the contact point out of the collidable.
+     *
+     * @return the x value of the contact normal.
+     */
+    public double getNormalX() {
+        return this.normalX;
+    }
+    /**
+     * Gets the y value of the contact normal: the unit vector from the contact point out of the collidable.
+     *
+     * @return the y value of the contact normal.
+     */
+    public double getNormalY() {
+        return this.normalY;
+    }
+    /**
+     * Gets the change in position on the x axis of the hit collidable during the trajectory (0 if it does not move).
+     *
+     * @return the motion of the collidable on the x axis.
+     */
+    public double getMotionX() {
+        return this.motionX;
+    }
+    /**
+     * Gets the change in position on the y axis of the hit collidable during the trajectory (0 if it does not move).
+     *
+     * @return the motion of the collidable on the y axis.
+     */
+    public double getMotionY() {
+        return this.motionY;
+    }
+}
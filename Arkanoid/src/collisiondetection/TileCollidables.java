@@ -0,0 +1,38 @@
+package collisiondetection;
+
+/**
+ * The TileCollidables interface will be used by collections of collidables that are laid out on a grid of tiles,
+ *  like the blocks of a big level. The tiles are not collidable objects: they are found by walking the cells of a
+ *  trajectory, and a collidable is made for a tile only when it is hit.
+ *
+ * @author Ayelet Tennenboim
+ */
+public interface TileCollidables {
+    /**
+     * Returns the number of cells of the grid. The insertion order of a tile is the insertion order of the first
+     *  cell plus the index of its cell.
+     *
+     * @return the number of cells of the grid.
+     */
+    int getTileCount();
+    /**
+     * Walks the cells near the trajectory of a circle whose center moves from (x1, y1) to (x2, y2), in the order
+     *  the trajectory reaches them, and tests the tiles in them with the given hit record.
+     *
+     * @param x1 the x value of the start of the trajectory.
+     * @param y1 the y value of the start of the trajectory.
+     * @param x2 the x value of the end of the trajectory.
+     * @param y2 the y value of the end of the trajectory.
+     * @param radius the radius of the circle (0 for a point).
+     * @param firstOrder the insertion order of the first cell.
+     * @param hit the hit record of the query.
+     */
+    void traverse(double x1, double y1, double x2, double y2, double radius, int firstOrder, NearestHit hit);
+    /**
+     * Returns the collidable of a tile, that is told about the hits.
+     *
+     * @param cell the cell of the tile.
+     * @return the collidable of the tile.
+     */
+    Collidable getTile(int cell);
+}
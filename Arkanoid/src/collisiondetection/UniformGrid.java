@@ -0,0 +1,295 @@
+package collisiondetection;
+
+import geometricshapes.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UniformGrid - a uniform grid (spatial hash) of collidables. Every collidable is registered in all the cells its
+ *  collision rectangle overlaps, so a query only has to look at the cells a trajectory passes through instead of
+ *  at every collidable in the game.
+ *
+ * The rectangles are grown by a margin when they are registered, so a ball whose radius is not bigger than the
+ *  margin can be found by walking only the cells of its center's trajectory.
+ *
+ * Cells outside the grid are clamped to the border cells, so collidables (and trajectories) outside the given
+ *  width and height are still found - they just share the border cells.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class UniformGrid {
+    // Rectangles are inflated by this margin, so points on a cell border are found from both sides of it
+    private static final double EPSILON = 0.000001;
+    // The width and height of a cell
+    private double cellSize;
+    // The margin that the rectangles are grown by (the biggest radius of a plain walk)
+    private double margin;
+    // Number of columns and rows in the grid
+    private int columns;
+    private int rows;
+    // The cells of the grid, row by row
+    private List<List<Entry>> cells;
+    // The entry of each collidable in the grid
+    private Map<Collidable, Entry> entries;
+
+    /**
+     * Entry - the place of a collidable in the grid.
+     */
+    private static class Entry {
+        private Collidable collidable;
+        private int order;
+        private int minColumn;
+        private int maxColumn;
+        private int minRow;
+        private int maxRow;
+    }
+
+    /**
+     * Constructor - creates a new empty grid.
+     *
+     * @param cellSize the width and height of a cell.
+     * @param width the width of the area that the grid covers.
+     * @param height the height of the area that the grid covers.
+     * @param margin the biggest radius that can be found by walking the cells of the center's trajectory.
+     */
+    public UniformGrid(double cellSize, double width, double height, double margin) {
+        this.cellSize = cellSize;
+        this.margin = margin;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new ArrayList<List<Entry>>(this.columns * this.rows);
+        for (int i = 0; i < this.columns * this.rows; i++) {
+            this.cells.add(new ArrayList<Entry>());
+        }
+        this.entries = new HashMap<Collidable, Entry>();
+    }
+    /**
+     * Adds the given collidable to the grid.
+     *
+     * @param c the given collidable.
+     * @param order the insertion order of the collidable, that is given back to the visitors.
+     */
+    public void insert(Collidable c, int order) {
+        Entry entry = new Entry();
+        entry.collidable = c;
+        entry.order = order;
+        this.place(entry);
+        this.entries.put(c, entry);
+    }
+    /**
+     * Checks whether the grid is empty.
+     *
+     * @return true if there are no collidables in the grid, false otherwise.
+     */
+    public boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+    /**
+     * Removes the given collidable from the grid.
+     *
+     * @param c the given collidable.
+     */
+    public void remove(Collidable c) {
+        Entry entry = this.entries.remove(c);
+        if (entry != null) {
+            this.unplace(entry);
+        }
+    }
+    /**
+     * Moves the given collidable to the cells of its current collision rectangle. It should be called after a
+     *  collidable changes its location. Collidables that are not in the grid are ignored.
+     *
+     * @param c the given collidable.
+     */
+    public void update(Collidable c) {
+        Entry entry = this.entries.get(c);
+        if (entry == null) {
+            return;
+        }
+        Rectangle rect = c.getCollisionRectangle();
+        double grow = this.margin + EPSILON;
+        // If the collidable is still in the same cells - there is nothing to do
+        if ((entry.minColumn == this.column(rect.getUpperLeft().getX() - grow))
+                && (entry.maxColumn == this.column(rect.getUpperLeft().getX() + rect.getWidth() + grow))
+                && (entry.minRow == this.row(rect.getUpperLeft().getY() - grow))
+                && (entry.maxRow == this.row(rect.getUpperLeft().getY() + rect.getHeight() + grow))) {
+            return;
+        }
+        this.unplace(entry);
+        this.place(entry);
+    }
+    /**
+     * Goes over the cells that the trajectory from (x1, y1) to (x2, y2) passes through, in the order the trajectory
+     *  enters them, and visits the collidables that are registered in them.
+     *
+     * The walk is the Amanatides-Woo grid traversal. When the trajectory passes exactly through a corner of a cell,
+     *  both neighbouring cells are visited as well. A radius bigger than the margin of the grid can't be found by
+     *  the walk, so in that case all the cells around the trajectory are visited (not in order).
+     *
+     * @param x1 the x value of the start of the trajectory.
+     * @param y1 the y value of the start of the trajectory.
+     * @param x2 the x value of the end of the trajectory.
+     * @param y2 the y value of the end of the trajectory.
+     * @param radius the radius of the moving object (0 for a point).
+     * @param visitor the visitor of the collidables.
+     */
+    public void traverse(double x1, double y1, double x2, double y2, double radius, CollidableVisitor visitor) {
+        if (radius > this.margin) {
+            this.visitArea(Math.min(x1, x2) - radius, Math.min(y1, y2) - radius, Math.max(x1, x2) + radius,
+                    Math.max(y1, y2) + radius, visitor);
+            return;
+        }
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        // The cells of the start and the end of the trajectory
+        int column = (int) Math.floor(x1 / this.cellSize);
+        int row = (int) Math.floor(y1 / this.cellSize);
+        int endColumn = (int) Math.floor(x2 / this.cellSize);
+        int endRow = (int) Math.floor(y2 / this.cellSize);
+        int stepX = (dx > 0) ? 1 : ((dx < 0) ? -1 : 0);
+        int stepY = (dy > 0) ? 1 : ((dy < 0) ? -1 : 0);
+        // The part of the trajectory it takes to cross a cell, and to reach the next cell border, on each axis
+        double tDeltaX = (stepX != 0) ? (this.cellSize / Math.abs(dx)) : Double.POSITIVE_INFINITY;
+        double tDeltaY = (stepY != 0) ? (this.cellSize / Math.abs(dy)) : Double.POSITIVE_INFINITY;
+        double tMaxX = Double.POSITIVE_INFINITY;
+        double tMaxY = Double.POSITIVE_INFINITY;
+        if (stepX != 0) {
+            tMaxX = (((column + (stepX > 0 ? 1 : 0)) * this.cellSize) - x1) / dx;
+        }
+        if (stepY != 0) {
+            tMaxY = (((row + (stepY > 0 ? 1 : 0)) * this.cellSize) - y1) / dy;
+        }
+        // Number of cell borders the trajectory crosses
+        int steps = Math.abs(endColumn - column) + Math.abs(endRow - row);
+        this.visitCell(column, row, visitor);
+        while (steps > 0) {
+            double tEnter;
+            if (tMaxX < tMaxY) {
+                tEnter = tMaxX;
+                column += stepX;
+                tMaxX += tDeltaX;
+                steps--;
+            } else if (tMaxY < tMaxX) {
+                tEnter = tMaxY;
+                row += stepY;
+                tMaxY += tDeltaY;
+                steps--;
+            } else {
+                // The trajectory passes through a corner - visit both cells that share it
+                tEnter = tMaxX;
+                if (visitor.isDone(tEnter)) {
+                    return;
+                }
+                this.visitCell(column + stepX, row, visitor);
+                this.visitCell(column, row + stepY, visitor);
+                column += stepX;
+                row += stepY;
+                tMaxX += tDeltaX;
+                tMaxY += tDeltaY;
+                steps -= 2;
+            }
+            if (visitor.isDone(tEnter)) {
+                return;
+            }
+            this.visitCell(column, row, visitor);
+        }
+    }
+    /**
+     * Visits the collidables of all the cells that overlap the given area.
+     *
+     * @param left the x value of the left side of the area.
+     * @param top the y value of the top side of the area.
+     * @param right the x value of the right side of the area.
+     * @param bottom the y value of the bottom side of the area.
+     * @param visitor the visitor of the collidables.
+     */
+    private void visitArea(double left, double top, double right, double bottom, CollidableVisitor visitor) {
+        for (int r = this.row(top); r <= this.row(bottom); r++) {
+            for (int c = this.column(left); c <= this.column(right); c++) {
+                this.visitCell(c, r, visitor);
+            }
+        }
+    }
+    /**
+     * Visits the collidables of a cell.
+     *
+     * @param column the column of the cell (may be out of the grid).
+     * @param row the row of the cell (may be out of the grid).
+     * @param visitor the visitor of the collidables.
+     */
+    private void visitCell(int column, int row, CollidableVisitor visitor) {
+        List<Entry> cell = this.cells.get(this.clampRow(row) * this.columns + this.clampColumn(column));
+        for (int i = 0; i < cell.size(); i++) {
+            Entry entry = cell.get(i);
+            visitor.visit(entry.collidable, entry.order);
+        }
+    }
+    /**
+     * Registers the entry in all the cells its collision rectangle overlaps.
+     *
+     * @param entry the entry.
+     */
+    private void place(Entry entry) {
+        Rectangle rect = entry.collidable.getCollisionRectangle();
+        double grow = this.margin + EPSILON;
+        entry.minColumn = this.column(rect.getUpperLeft().getX() - grow);
+        entry.maxColumn = this.column(rect.getUpperLeft().getX() + rect.getWidth() + grow);
+        entry.minRow = this.row(rect.getUpperLeft().getY() - grow);
+        entry.maxRow = this.row(rect.getUpperLeft().getY() + rect.getHeight() + grow);
+        for (int r = entry.minRow; r <= entry.maxRow; r++) {
+            for (int c = entry.minColumn; c <= entry.maxColumn; c++) {
+                this.cells.get(r * this.columns + c).add(entry);
+            }
+        }
+    }
+    /**
+     * Removes the entry from all the cells it is registered in.
+     *
+     * @param entry the entry.
+     */
+    private void unplace(Entry entry) {
+        for (int r = entry.minRow; r <= entry.maxRow; r++) {
+            for (int c = entry.minColumn; c <= entry.maxColumn; c++) {
+                this.cells.get(r * this.columns + c).remove(entry);
+            }
+        }
+    }
+    /**
+     * Returns the (clamped) column of the given x value.
+     *
+     * @param x an x value.
+     * @return the column of the x value.
+     */
+    private int column(double x) {
+        return this.clampColumn((int) Math.floor(x / this.cellSize));
+    }
+    /**
+     * Returns the (clamped) row of the given y value.
+     *
+     * @param y a y value.
+     * @return the row of the y value.
+     */
+    private int row(double y) {
+        return this.clampRow((int) Math.floor(y / this.cellSize));
+    }
+    /**
+     * Clamps a column to the grid.
+     *
+     * @param column a column.
+     * @return the nearest column in the grid.
+     */
+    private int clampColumn(int column) {
+        return Math.max(0, Math.min(this.columns - 1, column));
+    }
+    /**
+     * Clamps a row to the grid.
+     *
+     * @param row a row.
+     * @return the nearest row in the grid.
+     */
+    private int clampRow(int row) {
+        return Math.max(0, Math.min(this.rows - 1, row));
+    }
+}
@@ -54,8 +54,10 @@ public class Ass7Game {
         }
         // Create a window with the title "Arkanoid" which is 800 pixels wide and 600 pixels high
         GUI gui = new GUI("Arkanoid", 800 , 600);
-        // Create an AnimationRunner to run the animation object
-        AnimationRunner runner = new AnimationRunner(gui);
+        // Create an AnimationRunner to run the animation object, that runs the game in fixed ticks of 1/60 seconds
+        AnimationRunner runner = new AnimationRunner(gui, 60, 60);
+        // Draw the game on a render thread, when there is another core for it
+        runner.setPipelined(Runtime.getRuntime().availableProcessors() > 1);
         // Create a keyboard to read the key presses
         KeyboardSensor keyboard = gui.getKeyboardSensor();
         // Create a DialogManager
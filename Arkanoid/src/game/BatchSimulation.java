@@ -0,0 +1,154 @@
+package game;
+
+import animation.AnimationRunner;
+import headless.CountingDrawSurface;
+import headless.HeadlessRunner;
+import headless.PaddleController;
+import levels.LevelInformation;
+import levels.LevelSet;
+import levels.LevelSetsReader;
+import levels.LevelSpecificationReader;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Run level sets without a window, as fast as the CPU allows, and report the throughput of the game engine.
+ *
+ * Usage: BatchSimulation [--parallel] [set key | all] [sessions] [max frames per level] [render interval]
+ *
+ * With --parallel, the balls of every level are moved in parallel (see BallSystem). Both modes play the levels
+ *  exactly the same way, so only the throughput changes.
+ *
+ * The levels of each set are played in order, like in GameFlow, by a PaddleController (seeded by the number of the
+ *  session). For every level, one comma-separated line is printed: the set, the session, the level, the frames
+ *  that were run, the wall time, the frames per second, the collision queries and the queries per second, whether
+ *  the level was cleared and in how many frames (and seconds of game time), and the score and lives at the end.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class BatchSimulation {
+    // Number of lives in the start of a session (as in GameFlow)
+    private static final int LIVES = 7;
+    // Default number of sessions
+    private static final int DEFAULT_SESSIONS = 1;
+    // Default maximum number of frames in a level
+    private static final long DEFAULT_MAX_FRAMES = 200000;
+
+    /**
+     * Plays the chosen level sets in the given number of sessions, and prints the report.
+     *
+     * @param args command line arguments: "--parallel" to move the balls in parallel (anywhere in the arguments),
+     *  the key of the level set (or "all"), the number of sessions, the maximum number of frames in a level and the
+     *  render interval (a frame is drawn every that many frames, 0 - never).
+     */
+    public static void main(String[] args) {
+        String key = "all";
+        int sessions = DEFAULT_SESSIONS;
+        long maxFrames = DEFAULT_MAX_FRAMES;
+        int renderInterval = 1;
+        boolean parallel = false;
+        // Separate the option from the positional arguments
+        List<String> positional = new ArrayList<String>();
+        for (String arg : args) {
+            if (arg.equals("--parallel")) {
+                parallel = true;
+            } else {
+                positional.add(arg);
+            }
+        }
+        try {
+            if (positional.size() > 0) {
+                key = positional.get(0);
+            }
+            if (positional.size() > 1) {
+                sessions = Integer.parseInt(positional.get(1));
+            }
+            if (positional.size() > 2) {
+                maxFrames = Long.parseLong(positional.get(2));
+            }
+            if (positional.size() > 3) {
+                renderInterval = Integer.parseInt(positional.get(3));
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Usage: BatchSimulation [--parallel] [set key | all] [sessions] [max frames per level]"
+                    + " [render interval]");
+            System.exit(1);
+        }
+        // Read the level sets file
+        InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream("level_sets.txt");
+        if (is == null) {
+            System.err.println("Missing file.");
+            System.exit(1);
+        }
+        List<LevelSet> levelSets = LevelSetsReader.fromReader(new BufferedReader(new InputStreamReader(is)));
+        System.out.println("set,session,level,frames,seconds,fps,queries,queries_per_second,cleared,clear_frames,"
+                + "clear_seconds,score,lives");
+        boolean found = false;
+        for (LevelSet set : levelSets) {
+            if (key.equals("all") || key.equals(set.getKey())) {
+                found = true;
+                for (int session = 0; session < sessions; session++) {
+                    playSet(set, session, maxFrames, renderInterval, parallel);
+                }
+            }
+        }
+        if (!found) {
+            System.err.println("No level set with the key " + key);
+            System.exit(1);
+        }
+    }
+    /**
+     * Plays the levels of a set in one session, and prints a line of the report for every level.
+     *
+     * @param set the level set.
+     * @param session the number of the session (the seed of the paddle controller).
+     * @param maxFrames the maximum number of frames in a level.
+     * @param renderInterval a frame is drawn every that many frames (0 - never).
+     * @param parallel true to move the balls in parallel, false to move them one by one.
+     */
+    private static void playSet(LevelSet set, int session, long maxFrames, int renderInterval, boolean parallel) {
+        InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream(set.getPath());
+        if (is == null) {
+            System.err.println("Missing file " + set.getPath());
+            return;
+        }
+        List<LevelInformation> levels = LevelSpecificationReader.fromReader(new BufferedReader(
+                new InputStreamReader(is)));
+        PaddleController controller = new PaddleController(session);
+        HeadlessRunner runner = new HeadlessRunner(new CountingDrawSurface(), null);
+        runner.setRenderInterval(renderInterval);
+        Counter score = new Counter(0);
+        Counter lives = new Counter(LIVES);
+        for (LevelInformation levelInfo : levels) {
+            GameLevel level = new GameLevel(levelInfo, runner, controller, score, lives);
+            controller.setLevel(level);
+            level.setParallelBalls(parallel);
+            level.initialize();
+            long startFrames = runner.getFrames();
+            long startTime = System.nanoTime();
+            runner.setFrameLimit(startFrames + maxFrames);
+            // Play turns while the level has more blocks, the player has more lives, and there are frames left
+            while ((lives.getValue() > 0) && (level.getRemainingBlocks() > 0)
+                    && (runner.getFrames() < startFrames + maxFrames)) {
+                level.playOneTurn();
+            }
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            long frames = runner.getFrames() - startFrames;
+            long queries = level.getCollisionQueries();
+            boolean cleared = level.getRemainingBlocks() == 0;
+            System.out.println(String.format(Locale.ROOT, "%s,%d,%s,%d,%.3f,%.0f,%d,%.0f,%b,%d,%.2f,%d,%d",
+                    set.getKey(), session, levelInfo.levelName().trim(), frames, seconds, frames / seconds, queries,
+                    queries / seconds, cleared, cleared ? frames : -1,
+                    cleared ? (double) frames / AnimationRunner.BASE_TICKS_PER_SECOND : -1,
+                    score.getValue(), lives.getValue()));
+            // If no more lives left
+            if (lives.getValue() <= 0) {
+                break;
+            }
+        }
+    }
+}
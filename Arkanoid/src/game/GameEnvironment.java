@@ -1,42 +1,199 @@
 package game;
 
+import collisiondetection.BoundingVolumeHierarchy;
 import collisiondetection.Collidable;
 import collisiondetection.CollisionInfo;
+import collisiondetection.MovingCollidable;
+import collisiondetection.NearestHit;
+import collisiondetection.TileCollidables;
+import collisiondetection.UniformGrid;
 import geometricshapes.Line;
+import geometricshapes.Point;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * GameEnvironment - During the game, there are going to be many objects a ball can collide with. The GameEnvironment
  *  class will be a collection of such things. The ball will know the game environment, and will use it to check for
  *  collisions and direct its movement.
  *
+ * The collidables are kept in three sets: the static set - the collidables that were in the environment when
+ *  buildStaticIndex() was called, in a bounding volume hierarchy that only shrinks as they are removed; a grid of the
+ *  other collidables that do not move; and the dynamic set - the moving collidables (like the paddle), that are
+ *  checked directly on every query. Big grid-aligned layouts are added as tile maps, that are walked cell by cell.
+ *
  * @author Ayelet Tennenboim
  */
 public class GameEnvironment {
+    // Default size of a cell in the collidables grid
+    private static final double DEFAULT_CELL_SIZE = 50;
+    // Default size of the area that the collidables grid covers (the screen)
+    private static final double DEFAULT_WIDTH = 800;
+    private static final double DEFAULT_HEIGHT = 600;
+    // Default biggest radius of a ball that is found by walking the cells of its center's trajectory
+    private static final double DEFAULT_MARGIN = 10;
     // An ArrayList of collidables
     private List<Collidable> collidables;
+    // The static collidables, in a tree of bounding boxes (null until it is built)
+    private BoundingVolumeHierarchy staticIndex;
+    // A grid of the other collidables that do not move, for finding the collidables near a trajectory
+    private UniformGrid grid;
+    // The collidables that move (they are not kept in the grid), and their insertion order
+    private List<MovingCollidable> movingCollidables;
+    private List<Integer> movingOrders;
+    // The tile maps, and the insertion order of their first cell
+    private List<TileCollidables> tileMaps;
+    private List<Integer> tileOrders;
+    // Insertion order of the next collidable
+    private int nextOrder;
+    // The insertion order of each collidable that does not move
+    private Map<Collidable, Integer> orders;
+    // Number of changes that could create new collisions (collidables that were added or moved)
+    private int version;
+    // Number of collision queries (the balls can be queried in parallel)
+    private LongAdder queries;
 
     /**
-     * Constructor - creates a new GameEnvironment.
+     * Constructor number 1 - creates a new GameEnvironment that covers the screen.
      */
     public GameEnvironment() {
+        this(DEFAULT_CELL_SIZE, DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+    /**
+     * Constructor number 2 - creates a new GameEnvironment with a collidables grid of the given size.
+     *
+     * @param cellSize the width and height of a cell in the collidables grid.
+     * @param width the width of the area that the collidables grid covers.
+     * @param height the height of the area that the collidables grid covers.
+     */
+    public GameEnvironment(double cellSize, double width, double height) {
         this.collidables = new ArrayList<Collidable>();
+        this.grid = new UniformGrid(cellSize, width, height, DEFAULT_MARGIN);
+        this.movingCollidables = new ArrayList<MovingCollidable>();
+        this.movingOrders = new ArrayList<Integer>();
+        this.nextOrder = 0;
+        this.orders = new HashMap<Collidable, Integer>();
+        this.tileMaps = new ArrayList<TileCollidables>();
+        this.tileOrders = new ArrayList<Integer>();
+        this.queries = new LongAdder();
     }
     /**
      * Adds the given collidable to the environment.
      *
+     * A MovingCollidable is checked on every query. Any other collidable that changes its location after it was
+     *  added must be updated with updateCollidable().
+     *
      * @param c the given collidable.
      */
     public void addCollidable(Collidable c) {
+        this.version++;
         this.collidables.add(c);
+        if (c instanceof MovingCollidable) {
+            this.movingCollidables.add((MovingCollidable) c);
+            this.movingOrders.add(this.nextOrder++);
+        } else {
+            this.orders.put(c, this.nextOrder);
+            this.grid.insert(c, this.nextOrder++);
+        }
     }
     /**
      * Removes the given collidable from the environment.
      *
      * @param c the given collidable.
      */
-    public void removeCollidable(Collidable c) { this.collidables.remove(c); }
+    public void removeCollidable(Collidable c) {
+        this.collidables.remove(c);
+        int index = this.movingCollidables.indexOf(c);
+        if (index >= 0) {
+            this.movingCollidables.remove(index);
+            this.movingOrders.remove(index);
+        } else if ((this.staticIndex == null) || !this.staticIndex.remove(c)) {
+            this.grid.remove(c);
+        }
+        this.orders.remove(c);
+    }
+    /**
+     * Adds the given tile map to the environment. Each of its cells gets its own insertion order.
+     *
+     * @param tiles the given tile map.
+     */
+    public void addTiles(TileCollidables tiles) {
+        this.version++;
+        this.tileMaps.add(tiles);
+        this.tileOrders.add(this.nextOrder);
+        this.nextOrder += tiles.getTileCount();
+    }
+    /**
+     * Removes the given tile map from the environment.
+     *
+     * @param tiles the given tile map.
+     */
+    public void removeTiles(TileCollidables tiles) {
+        int index = this.tileMaps.indexOf(tiles);
+        if (index >= 0) {
+            this.tileMaps.remove(index);
+            this.tileOrders.remove(index);
+        }
+    }
+    /**
+     * Updates the environment after the given collidable changed its location.
+     *
+     * @param c the given collidable.
+     */
+    public void updateCollidable(Collidable c) {
+        this.version++;
+        // A static collidable that moved is moved to the grid
+        if ((this.staticIndex != null) && this.staticIndex.remove(c)) {
+            this.grid.insert(c, this.orders.get(c));
+            return;
+        }
+        this.grid.update(c);
+    }
+    /**
+     * Builds the static index: moves all the collidables that do not move (all but the moving collidables) from the
+     *  grid to a bounding volume hierarchy. It should be called once, after the blocks of a level were added (later
+     *  calls do nothing). Collidables that are added later go to the grid.
+     */
+    public void buildStaticIndex() {
+        // If the index was already built
+        if (this.staticIndex != null) {
+            return;
+        }
+        List<Collidable> staticCollidables = new ArrayList<Collidable>();
+        List<Integer> staticOrders = new ArrayList<Integer>();
+        for (Collidable c : this.collidables) {
+            if (!(c instanceof MovingCollidable)) {
+                staticCollidables.add(c);
+                staticOrders.add(this.orders.get(c));
+            }
+        }
+        this.staticIndex = new BoundingVolumeHierarchy(staticCollidables, staticOrders);
+        for (Collidable c : staticCollidables) {
+            this.grid.remove(c);
+        }
+    }
+    /**
+     * Returns the number of changes to the environment that could create new collisions: collidables that were
+     *  added or moved. Removing a collidable can't create a collision, so it is not counted.
+     *
+     * A query that found no collision is still valid as long as this number does not change.
+     *
+     * @return the number of changes that could create new collisions.
+     */
+    public int getVersion() {
+        return this.version;
+    }
+    /**
+     * Returns the number of collision queries (calls to findNearestHit) that were made in the environment.
+     *
+     * @return the number of collision queries.
+     */
+    public long getQueryCount() {
+        return this.queries.sum();
+    }
     /**
      * Gets the list of collidables.
      *
@@ -57,34 +214,74 @@ public class GameEnvironment {
      *  collide with any of the collidables in the collection).
      */
     public CollisionInfo getClosestCollision(Line trajectory) {
-        // The closest collidable
-        Collidable closestCollidable = null;
-        // Make a copy of the Collidables before iterating over them
-        List<Collidable> collidablesList = new ArrayList<Collidable>(this.collidables);
-        // Go over the list of collidables
-        for (Collidable c : collidablesList) {
-            // If the collidable is in the trajectory of the object
-            if (trajectory.closestIntersectionToStartOfLine(c.getCollisionRectangle()) != null) {
-                // If it is the first collidable that will collide with the object
-                if (closestCollidable == null) {
-                    // Change closestCollidable to be this collidable
-                    closestCollidable = c;
-                // Else, if this collidable's (c) distance from the object is smaller than closestCollidable's distance
-                } else if (trajectory.start().distance(trajectory.closestIntersectionToStartOfLine(c.
-                        getCollisionRectangle())) < trajectory.start().distance(trajectory.
-                        closestIntersectionToStartOfLine(closestCollidable.getCollisionRectangle()))) {
-                    // Change closestCollidable to be this collidable
-                    closestCollidable = c;
-                }
-            }
-        }
+        NearestHit hit = new NearestHit();
         // If the object will not collide with any of the collidables in the collection, return null
-        if (closestCollidable == null) {
+        if (!this.findNearestHit(trajectory.start().getX(), trajectory.start().getY(), trajectory.end().getX(),
+                trajectory.end().getY(), hit)) {
             return null;
+        }
         // Else, return the information about the closest collision that is going to occur
-        } else {
-            return new CollisionInfo(trajectory.closestIntersectionToStartOfLine(closestCollidable.
-                    getCollisionRectangle()), closestCollidable);
+        return new CollisionInfo(new Point(hit.getPoint().getX(), hit.getPoint().getY()), hit.getCollidable());
+    }
+    /**
+     * Finds the closest collision of a point moving from (x1, y1) to (x2, y2), and keeps it in the given hit record.
+     *
+     * @param x1 the x value of the start of the trajectory.
+     * @param y1 the y value of the start of the trajectory.
+     * @param x2 the x value of the end of the trajectory.
+     * @param y2 the y value of the end of the trajectory.
+     * @param hit a hit record to keep the closest collision in (its previous content is discarded).
+     * @return true if the point collides with a collidable, false otherwise.
+     */
+    public boolean findNearestHit(double x1, double y1, double x2, double y2, NearestHit hit) {
+        return this.findNearestHit(x1, y1, x2, y2, 0, hit);
+    }
+    /**
+     * Finds the time of impact of a circle whose center moves from (x1, y1) to (x2, y2) in one frame, and keeps the
+     *  closest collision in the given hit record. Only the collidables in the cells that the trajectory passes
+     *  through (and the moving collidables) are tested, each of them once.
+     *
+     * @param x1 the x value of the start of the trajectory.
+     * @param y1 the y value of the start of the trajectory.
+     * @param x2 the x value of the end of the trajectory.
+     * @param y2 the y value of the end of the trajectory.
+     * @param radius the radius of the circle (0 for a point).
+     * @param hit a hit record to keep the closest collision in (its previous content is discarded).
+     * @return true if the circle collides with a collidable, false otherwise.
+     */
+    public boolean findNearestHit(double x1, double y1, double x2, double y2, double radius, NearestHit hit) {
+        return this.findNearestHit(x1, y1, x2, y2, radius, 1, hit);
+    }
+    /**
+     * Finds the time of impact of a circle whose center moves from (x1, y1) to (x2, y2) during the last part of a
+     *  frame, and keeps the closest collision in the given hit record. The moving collidables are swept along the
+     *  same last part of their move.
+     *
+     * @param x1 the x value of the start of the trajectory.
+     * @param y1 the y value of the start of the trajectory.
+     * @param x2 the x value of the end of the trajectory.
+     * @param y2 the y value of the end of the trajectory.
+     * @param radius the radius of the circle (0 for a point).
+     * @param frameTime the part of the frame that the trajectory takes (1 for a whole frame).
+     * @param hit a hit record to keep the closest collision in (its previous content is discarded).
+     * @return true if the circle collides with a collidable, false otherwise.
+     */
+    public boolean findNearestHit(double x1, double y1, double x2, double y2, double radius, double frameTime,
+                                  NearestHit hit) {
+        this.queries.increment();
+        hit.start(x1, y1, x2, y2, radius, frameTime);
+        if (this.staticIndex != null) {
+            this.staticIndex.traverse(x1, y1, x2, y2, radius, hit);
+        }
+        if (!this.grid.isEmpty()) {
+            this.grid.traverse(x1, y1, x2, y2, radius, hit);
+        }
+        for (int i = 0; i < this.tileMaps.size(); i++) {
+            this.tileMaps.get(i).traverse(x1, y1, x2, y2, radius, this.tileOrders.get(i), hit);
+        }
+        for (int i = 0; i < this.movingCollidables.size(); i++) {
+            hit.visit(this.movingCollidables.get(i), this.movingOrders.get(i));
         }
+        return hit.hasHit();
     }
-}
\ No newline at end of file
+}
@@ -75,6 +75,8 @@ public class GameFlow {
                 // Play one turn of the game
                 level.playOneTurn();
             }
+            // Report the times of the frames of the level (and of the screens that ran during it)
+            this.animationRunner.dumpFrameTimings(System.out);
             // If no more lives left
             if (this.lives.getValue() <= 0) {
                 break;
@@ -1,12 +1,13 @@
 package game;
 
-import animation.Animation;
+import animation.SteppedAnimation;
 import animation.AnimationRunner;
 import animation.CountdownAnimation;
 import animation.KeyPressStoppableAnimation;
 import animation.PauseScreen;
 import biuoop.KeyboardSensor;
 import collisiondetection.Collidable;
+import collisiondetection.TileCollidables;
 import geometricshapes.Point;
 import hitting.BlockRemover;
 import hitting.ScoreTrackingListener;
@@ -18,9 +19,13 @@ import sprites.Block;
 import sprites.Sprite;
 import sprites.Paddle;
 import sprites.SpriteCollection;
+import sprites.StaticLayer;
+import sprites.StaticSprite;
+import sprites.TileMap;
 import sprites.ball.BallRemover;
 import geometricshapes.Rectangle;
 import sprites.ball.Ball;
+import sprites.ball.BallSystem;
 import biuoop.DrawSurface;
 import java.awt.Color;
 import java.util.List;
@@ -30,17 +35,28 @@ import java.util.ArrayList;
  * GameLevel - the GameLevel class holds the sprites and the collidables of the game, and it is in charge of the
  *  animation.
  *
+ * The static sprites (the background and the blocks) are kept in a StaticLayer, that is drawn first, as one image.
+ *  The other sprites are drawn over it. The frames of the level are retained: every frame draws again only the areas
+ *  that the sprites changed since the previous frame (the balls, the paddle, the indicators and the blocks that were
+ *  hit).
+ *
  * @author Ayelet Tennenboim
  */
-public class GameLevel implements Animation {
+public class GameLevel implements SteppedAnimation {
     // Level information
     private LevelInformation levelInformation;
     // Sprites collection
     private SpriteCollection sprites;
+    // The static sprites (the first sprite in the sprites collection)
+    private StaticLayer staticLayer;
     // Paddle
     private Paddle paddle;
+    // The balls of the game
+    private BallSystem balls;
     // Collidables collection
     private GameEnvironment environment;
+    // The blocks of the level as a tile map (null if the blocks are separate Block objects)
+    private TileMap tileMap;
     // Count of remaining blocks
     private Counter remainingBlocks;
     // Count of available balls
@@ -69,6 +85,10 @@ public class GameLevel implements Animation {
                      Counter lives) {
         this.levelInformation = information;
         this.sprites = new SpriteCollection();
+        this.sprites.retainFrames(800, 600);
+        this.staticLayer = new StaticLayer(800, 600);
+        this.staticLayer.addToGame(this);
+        this.balls = new BallSystem();
         this.environment = new GameEnvironment();
         // Create a counter to count the remaining blocks
         this.remainingBlocks = new Counter(this.levelInformation.numberOfBlocksToRemove());
@@ -95,20 +115,137 @@ public class GameLevel implements Animation {
      */
     public void removeCollidable(Collidable c) { this.environment.removeCollidable(c); }
     /**
-     * Adds the given sprite to the collection.
+     * Adds the given tile map to the environment.
+     *
+     * @param tiles the given tile map.
+     */
+    public void addTiles(TileCollidables tiles) {
+        this.environment.addTiles(tiles);
+    }
+    /**
+     * Removes the given tile map from the environment.
+     *
+     * @param tiles the given tile map.
+     */
+    public void removeTiles(TileCollidables tiles) {
+        this.environment.removeTiles(tiles);
+    }
+    /**
+     * Adds the given sprite to the collection (a static sprite is added to the static layer).
      *
      * @param s the given sprite.
      */
     public void addSprite(Sprite s) {
-        this.sprites.addSprite(s);
+        if (s instanceof StaticSprite) {
+            this.staticLayer.addSprite((StaticSprite) s);
+        } else {
+            this.sprites.addSprite(s);
+        }
     }
     /**
-     * Removes the given sprite from the collection.
+     * Removes the given sprite from the collection (a static sprite is removed from the static layer).
      *
      * @param s the given sprite.
      */
     public void removeSprite(Sprite s) {
-        this.sprites.removeSprite(s);
+        if (s instanceof StaticSprite) {
+            this.staticLayer.removeSprite((StaticSprite) s);
+        } else {
+            this.sprites.removeSprite(s);
+        }
+    }
+    /**
+     * Returns the layer of the static sprites of the game.
+     *
+     * @return the static layer.
+     */
+    public StaticLayer getStaticLayer() {
+        return this.staticLayer;
+    }
+    /**
+     * Adds the given ball to the balls of the game.
+     *
+     * @param b the given ball.
+     */
+    public void addBall(Ball b) {
+        this.balls.add(b);
+    }
+    /**
+     * Removes the given ball from the balls of the game.
+     *
+     * @param b the given ball.
+     */
+    public void removeBall(Ball b) {
+        this.balls.remove(b);
+    }
+    /**
+     * Sets whether the balls are moved in parallel. Both modes give exactly the same results.
+     *
+     * @param parallel true to move the balls in parallel, false to move them one by one.
+     */
+    public void setParallelBalls(boolean parallel) {
+        this.balls.setParallel(parallel);
+    }
+    /**
+     * Returns a hash of the state of the level: the balls, the paddle, the score, the lives, and which blocks remain
+     *  (with their hit-points). Two runs of the level that give the same hash after every frame played the same way.
+     *
+     * @return the hash of the state of the level.
+     */
+    public long getStateHash() {
+        long hash = this.balls.getStateHash();
+        if (this.paddle != null) {
+            hash = (hash * 31)
+                    + Double.doubleToLongBits(this.paddle.getCollisionRectangle().getUpperLeft().getX());
+        }
+        hash = (hash * 31) + this.score.getValue();
+        hash = (hash * 31) + this.lives.getValue();
+        hash = (hash * 31) + this.remainingBlocks.getValue();
+        // The blocks that remain, in the order they were added, and their hit-points
+        for (Collidable c : this.environment.getCollidables()) {
+            if (c instanceof Block) {
+                Rectangle rec = c.getCollisionRectangle();
+                hash = (hash * 31) + Double.doubleToLongBits(rec.getUpperLeft().getX());
+                hash = (hash * 31) + Double.doubleToLongBits(rec.getUpperLeft().getY());
+                hash = (hash * 31) + ((Block) c).getHitPoints();
+            }
+        }
+        if (this.tileMap != null) {
+            hash = (hash * 31) + this.tileMap.getStateHash();
+        }
+        return hash;
+    }
+    /**
+     * Returns the paddle of the current turn.
+     *
+     * @return the paddle (or null before the first turn).
+     */
+    public Paddle getPaddle() {
+        return this.paddle;
+    }
+    /**
+     * Returns the balls of the game.
+     *
+     * @return the ball system of the game.
+     */
+    public BallSystem getBalls() {
+        return this.balls;
+    }
+    /**
+     * Returns the game environment of the level (the collidables).
+     *
+     * @return the game environment.
+     */
+    public GameEnvironment getEnvironment() {
+        return this.environment;
+    }
+    /**
+     * Returns the number of collision queries that were made in the level.
+     *
+     * @return the number of collision queries.
+     */
+    public long getCollisionQueries() {
+        return this.environment.getQueryCount();
     }
     /**
      * Returns the number of remaining blocks.
@@ -122,8 +259,14 @@ public class GameLevel implements Animation {
      * Initializes a new level: creates blocks and indicators, and adds them to the game.
      */
     public void initialize() {
-        // Create blocks for the game
-        List<Block> blocks = levelInformation.blocks();
+        // Create the blocks for the game - as a tile map, if the level can be laid out as one
+        this.tileMap = this.levelInformation.tileMap();
+        List<Block> blocks;
+        if (this.tileMap != null) {
+            blocks = new ArrayList<Block>();
+        } else {
+            blocks = this.levelInformation.blocks();
+        }
         // Create blocks at the borders of the screen
         List<Block> bordersBlocks = createBordersBlocks();
         // Create a death-region below the bottom of the screen
@@ -155,6 +298,12 @@ public class GameLevel implements Animation {
         LivesIndicator livesIndicator = new LivesIndicator(this.lives);
         // Add the LivesIndicator to the game
         livesIndicator.addToGame(this);
+        // Add the tile map to the game
+        if (this.tileMap != null) {
+            this.tileMap.addHitListener(scoreTracking);
+            this.tileMap.addHitListener(blockRemover);
+            this.tileMap.addToGame(this);
+        }
         // Go over the blocks list
         for (Block b : blocks) {
             // Add the ScoreTrackingListener to the block
@@ -166,6 +315,10 @@ public class GameLevel implements Animation {
         }
         // Add the levelName to the game
         levelName.addToGame(this);
+        // Add the balls to the game (they are moved and drawn together)
+        this.balls.addToGame(this);
+        // Index the collidables that do not move (the blocks and the borders)
+        this.environment.buildStaticIndex();
     }
     /**
      * This method is in charge of stopping condition.
@@ -180,6 +333,33 @@ public class GameLevel implements Animation {
      * @param d a surface to draw on it.
      */
     public void doOneFrame(DrawSurface d) {
+        this.checkTurnOver();
+        // Draw all the sprites on the surface
+        this.render(d, 1);
+        this.advance();
+    }
+    /**
+     * This method advances the game by one tick: it calls timePassed on all the sprites, without drawing them. The
+     *  method gives an indication when there are either no more blocks or no more balls.
+     */
+    public void tick() {
+        this.checkTurnOver();
+        this.advance();
+    }
+    /**
+     * This method draws all the sprites on the given DrawSurface, with the moving sprites at the given part of the
+     *  way from their position in the previous tick to their position now.
+     *
+     * @param d a surface to draw on it.
+     * @param alpha the part of the way (0 for the previous tick, 1 for the current tick).
+     */
+    public void render(DrawSurface d, double alpha) {
+        this.sprites.drawAllOn(d, alpha);
+    }
+    /**
+     * Gives an indication (and removes the paddle) when there are either no more blocks or no more balls.
+     */
+    private void checkTurnOver() {
         // If no more blocks are available
         if (this.remainingBlocks.getValue() == 0) {
             // Add 100 points for clearing an entire level (destroying all blocks)
@@ -196,8 +376,11 @@ public class GameLevel implements Animation {
             // Indicate that this turn is over
             this.running = false;
         }
-        // Draw all the sprites on the surface
-        this.sprites.drawAllOn(d);
+    }
+    /**
+     * Calls timePassed() on all the sprites, and pauses the game when the 'p' key is pressed.
+     */
+    private void advance() {
         // Call timePassed() on all sprites
         this.sprites.notifyAllTimePassed();
         // Pause the game when pressing the 'p' key
@@ -220,8 +403,11 @@ public class GameLevel implements Animation {
         this.paddle = this.createPaddle();
         // Add the paddle to the game
         paddle.addToGame(this);
+        // Scale the speeds of the balls and the paddle to the length of a tick of the runner
+        this.balls.setStepTime(this.runner.getTickLength());
+        this.paddle.setStepTime(this.runner.getTickLength());
         // Countdown before turn starts
-        this.runner.run(new CountdownAnimation(2, 3, this.sprites));
+        this.runner.run(new CountdownAnimation(2, 3, this.sprites, this.runner.getFramesPerSecond()));
         this.running = true;
         // Run the current animation (one turn of the game)
         this.runner.run(this);
@@ -257,8 +443,8 @@ public class GameLevel implements Animation {
         }
         // Create the balls array
         for (int i = 0; i < num; i++) {
-            // Create a ball
-            balls[i] = new Ball(valueOfX, valueOfY, 7, new Color(250, 250, 250));
+            // Create a ball in the ball system of the game
+            balls[i] = this.balls.create(valueOfX, valueOfY, 7, new Color(250, 250, 250));
             // Set the velocity of the ball
             balls[i].setVelocity(this.levelInformation.initialBallVelocities().get(i));
             // Set the ball's game environment
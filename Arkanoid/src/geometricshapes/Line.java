@@ -232,33 +232,45 @@ public class Line {
      * <p>
      * If this line does not intersect with the rectangle, return null. Otherwise, return the closest intersection
      * point to the start of the line.
+     * <p>
+     * The point is found with the slab test of SlabIntersection, without building the sides of the rectangle. The
+     * coordinate of the side that is hit is copied from the rectangle, so the point is exactly on that side.
      *
      * @param rect a rectangle.
      * @return the closest intersection point to the start of the line if there is one, and null otherwise.
      */
     public Point closestIntersectionToStartOfLine(Rectangle rect) {
-        Point closestPoint;
-        Double minDistance;
-        // Get a list of intersection points of this line with the rectangle
-        java.util.List<Point> intersectionPoints = rect.intersectionPoints(new Line(this.start, this.end));
+        double x1 = this.start.getX();
+        double y1 = this.start.getY();
+        double x2 = this.end.getX();
+        double y2 = this.end.getY();
+        // The sides of the rectangle
+        double left = rect.getUpperLeft().getX();
+        double top = rect.getUpperLeft().getY();
+        double right = left + rect.getWidth();
+        double bottom = top + rect.getHeight();
+        double t = SlabIntersection.entryTime(x1, y1, x2, y2, left, top, right, bottom);
         // If this line does not intersect with the rectangle - return null
-        if (intersectionPoints.size() == 0) {
+        if (t == SlabIntersection.MISS) {
             return null;
         }
-        closestPoint = intersectionPoints.get(0);
-        minDistance = this.start.distance(intersectionPoints.get(0));
-        // If there is only one intersection point - return this point
-        if (intersectionPoints.size() == 1) {
-            return closestPoint;
-            // If there are two or more intersection points - return the closest point to the start of the line
-        } else {
-            for (int i = 1; i < intersectionPoints.size(); i++) {
-                if (this.start.distance(intersectionPoints.get(i)) < minDistance) {
-                    minDistance = this.start.distance(intersectionPoints.get(i));
-                    closestPoint = intersectionPoints.get(i);
-                }
-            }
-            return closestPoint;
+        double x = x1 + (t * (x2 - x1));
+        double y = y1 + (t * (y2 - y1));
+        // Put the point exactly on the side it hits
+        switch (SlabIntersection.entryFace(x1, y1, x2, y2, left, top, right, bottom, t)) {
+            case SlabIntersection.LEFT:
+                x = left;
+                break;
+            case SlabIntersection.RIGHT:
+                x = right;
+                break;
+            case SlabIntersection.TOP:
+                y = top;
+                break;
+            default:
+                y = bottom;
+                break;
         }
+        return new Point(x, y);
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package geometricshapes;
+
+/**
+ * SlabIntersection - finds where a line segment crosses the border of an axis-aligned rectangle, using the slab
+ *  test: the rectangle is the overlap of a vertical slab and a horizontal slab, and the segment is inside the
+ *  rectangle exactly while it is inside both of them.
+ *
+ * The methods work on primitive values only, so they do not allocate any objects. The segment is written as
+ *  P(t) = start + t * (end - start), where 0 <= t <= 1.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class SlabIntersection {
+    /**
+     * Returned by entryTime() when the segment does not cross the border of the rectangle.
+     */
+    public static final double MISS = -1;
+    /**
+     * Returned by entryFace() when the segment does not cross the border of the rectangle.
+     */
+    public static final int NO_FACE = -1;
+    /**
+     * The left side of the rectangle.
+     */
+    public static final int LEFT = 0;
+    /**
+     * The right side of the rectangle.
+     */
+    public static final int RIGHT = 1;
+    /**
+     * The top side of the rectangle.
+     */
+    public static final int TOP = 2;
+    /**
+     * The bottom side of the rectangle.
+     */
+    public static final int BOTTOM = 3;
+
+    /**
+     * Finds the first point along the segment at which it crosses the border of the rectangle.
+     *
+     * If the segment starts outside the rectangle, this is the point where it enters the rectangle. If it starts
+     *  inside the rectangle, this is the point where it leaves it. Points on the border count as inside.
+     *
+     * @param x1 the x value of the start of the segment.
+     * @param y1 the y value of the start of the segment.
+     * @param x2 the x value of the end of the segment.
+     * @param y2 the y value of the end of the segment.
+     * @param left the x value of the left side of the rectangle.
+     * @param top the y value of the top side of the rectangle.
+     * @param right the x value of the right side of the rectangle.
+     * @param bottom the y value of the bottom side of the rectangle.
+     * @return the parameter t of the crossing point, or MISS if the segment does not cross the border.
+     */
+    public static double entryTime(double x1, double y1, double x2, double y2, double left, double top,
+                                   double right, double bottom) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double tNear = Double.NEGATIVE_INFINITY;
+        double tFar = Double.POSITIVE_INFINITY;
+        // The vertical slab
+        if (dx == 0) {
+            if ((x1 < left) || (x1 > right)) {
+                return MISS;
+            }
+        } else {
+            double t1 = (left - x1) / dx;
+            double t2 = (right - x1) / dx;
+            tNear = Math.min(t1, t2);
+            tFar = Math.max(t1, t2);
+        }
+        // The horizontal slab
+        if (dy == 0) {
+            if ((y1 < top) || (y1 > bottom)) {
+                return MISS;
+            }
+        } else {
+            double t1 = (top - y1) / dy;
+            double t2 = (bottom - y1) / dy;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+        }
+        // If the segment's line misses the rectangle, or the rectangle is out of the segment's range
+        if ((tNear > tFar) || (tFar < 0) || (tNear > 1)) {
+            return MISS;
+        }
+        // If the segment starts outside the rectangle - it enters it
+        if (tNear >= 0) {
+            return tNear;
+        }
+        // If the segment starts inside the rectangle - it leaves it (unless it ends inside it as well)
+        if (tFar <= 1) {
+            return tFar;
+        }
+        return MISS;
+    }
+    /**
+     * Finds the side of the rectangle that the segment crosses at the given parameter t (the result of
+     *  entryTime() for the same segment and rectangle). At a corner, the vertical side is returned.
+     *
+     * @param x1 the x value of the start of the segment.
+     * @param y1 the y value of the start of the segment.
+     * @param x2 the x value of the end of the segment.
+     * @param y2 the y value of the end of the segment.
+     * @param left the x value of the left side of the rectangle.
+     * @param top the y value of the top side of the rectangle.
+     * @param right the x value of the right side of the rectangle.
+     * @param bottom the y value of the bottom side of the rectangle.
+     * @param t the parameter of the crossing point.
+     * @return the side of the crossing point (LEFT, RIGHT, TOP or BOTTOM), or NO_FACE if t is MISS.
+     */
+    public static int entryFace(double x1, double y1, double x2, double y2, double left, double top,
+                                double right, double bottom, double t) {
+        if (t == MISS) {
+            return NO_FACE;
+        }
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        // The crossing point is on the vertical slab border that the segment reaches at exactly t
+        if (dx != 0) {
+            if ((left - x1) / dx == t) {
+                return LEFT;
+            }
+            if ((right - x1) / dx == t) {
+                return RIGHT;
+            }
+        }
+        if ((dy != 0) && ((top - y1) / dy == t)) {
+            return TOP;
+        }
+        return BOTTOM;
+    }
+}
@@ -0,0 +1,150 @@
+package geometricshapes;
+
+/**
+ * SweptCircle - finds the time of impact of a moving circle with an axis-aligned rectangle.
+ *
+ * A circle of radius r touches the rectangle exactly when its center touches the rectangle grown by r - a rectangle
+ *  with rounded corners. So the center is swept as a segment: first against the rectangle grown by r on every side
+ *  (the slab test), and when it enters that box near a corner, against the circle of radius r around that corner.
+ *
+ * The center moves along P(t) = start + t * (end - start), where 0 <= t <= 1. The methods work on primitive values
+ *  only, so they do not allocate any objects.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class SweptCircle {
+    /**
+     * Returned by entryTime() when the circle does not hit the rectangle.
+     */
+    public static final double MISS = -1;
+    // Circles closer than this to touching the rectangle count as touching it
+    private static final double TOUCH = 0.0000001;
+
+    /**
+     * Finds the first time at which the moving circle touches the rectangle.
+     *
+     * If the circle already touches (or overlaps) the rectangle at the start, it hits it at t = 0 when it moves
+     *  towards the rectangle, and misses it when it moves away from it - so a circle that has just bounced off a
+     *  rectangle can leave it.
+     *
+     * @param x1 the x value of the center at the start.
+     * @param y1 the y value of the center at the start.
+     * @param x2 the x value of the center at the end.
+     * @param y2 the y value of the center at the end.
+     * @param radius the radius of the circle.
+     * @param left the x value of the left side of the rectangle.
+     * @param top the y value of the top side of the rectangle.
+     * @param right the x value of the right side of the rectangle.
+     * @param bottom the y value of the bottom side of the rectangle.
+     * @return the parameter t of the time of impact, or MISS if the circle does not hit the rectangle.
+     */
+    public static double entryTime(double x1, double y1, double x2, double y2, double radius, double left,
+                                   double top, double right, double bottom) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        // If the circle already touches the rectangle
+        double offsetX = x1 - Math.max(left, Math.min(right, x1));
+        double offsetY = y1 - Math.max(top, Math.min(bottom, y1));
+        if ((offsetX * offsetX) + (offsetY * offsetY) <= (radius + TOUCH) * (radius + TOUCH)) {
+            if ((offsetX == 0) && (offsetY == 0)) {
+                // The center is inside the rectangle - use the side it is closest to
+                offsetX = penetrationNormalX(x1, y1, left, top, right, bottom);
+                offsetY = penetrationNormalY(x1, y1, left, top, right, bottom);
+            }
+            return ((dx * offsetX) + (dy * offsetY) < 0) ? 0 : MISS;
+        }
+        if ((dx == 0) && (dy == 0)) {
+            return MISS;
+        }
+        // Slab test against the rectangle grown by the radius
+        double tNear = Double.NEGATIVE_INFINITY;
+        double tFar = Double.POSITIVE_INFINITY;
+        if (dx == 0) {
+            if ((x1 < left - radius) || (x1 > right + radius)) {
+                return MISS;
+            }
+        } else {
+            double t1 = (left - radius - x1) / dx;
+            double t2 = (right + radius - x1) / dx;
+            tNear = Math.min(t1, t2);
+            tFar = Math.max(t1, t2);
+        }
+        if (dy == 0) {
+            if ((y1 < top - radius) || (y1 > bottom + radius)) {
+                return MISS;
+            }
+        } else {
+            double t1 = (top - radius - y1) / dy;
+            double t2 = (bottom + radius - y1) / dy;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+        }
+        if ((tNear > tFar) || (tFar < 0) || (tNear > 1)) {
+            return MISS;
+        }
+        // Where the center enters the grown rectangle (or the start, if it starts inside its corner)
+        double t = Math.max(tNear, 0);
+        double hitX = x1 + (t * dx);
+        double hitY = y1 + (t * dy);
+        // If it enters along a side (not near a corner) - this is the time of impact
+        if (((hitX >= left) && (hitX <= right)) || ((hitY >= top) && (hitY <= bottom))) {
+            return t;
+        }
+        // Near a corner - sweep the center against the circle around the corner
+        double cornerX = (hitX < left) ? left : right;
+        double cornerY = (hitY < top) ? top : bottom;
+        double mx = x1 - cornerX;
+        double my = y1 - cornerY;
+        double a = (dx * dx) + (dy * dy);
+        double b = 2 * ((mx * dx) + (my * dy));
+        double c = (mx * mx) + (my * my) - (radius * radius);
+        double discriminant = (b * b) - (4 * a * c);
+        if (discriminant < 0) {
+            return MISS;
+        }
+        double cornerT = (-b - Math.sqrt(discriminant)) / (2 * a);
+        if ((cornerT < 0) || (cornerT > 1)) {
+            return MISS;
+        }
+        return cornerT;
+    }
+    /**
+     * Returns the x value of the outward normal of the rectangle side that the given point (inside the rectangle)
+     *  is closest to.
+     *
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @param left the x value of the left side of the rectangle.
+     * @param top the y value of the top side of the rectangle.
+     * @param right the x value of the right side of the rectangle.
+     * @param bottom the y value of the bottom side of the rectangle.
+     * @return the x value of the normal (-1, 0 or 1).
+     */
+    public static double penetrationNormalX(double x, double y, double left, double top, double right,
+                                            double bottom) {
+        double toSide = Math.min(x - left, right - x);
+        if (toSide > Math.min(y - top, bottom - y)) {
+            return 0;
+        }
+        return (x - left <= right - x) ? -1 : 1;
+    }
+    /**
+     * Returns the y value of the outward normal of the rectangle side that the given point (inside the rectangle)
+     *  is closest to.
+     *
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @param left the x value of the left side of the rectangle.
+     * @param top the y value of the top side of the rectangle.
+     * @param right the x value of the right side of the rectangle.
+     * @param bottom the y value of the bottom side of the rectangle.
+     * @return the y value of the normal (-1, 0 or 1).
+     */
+    public static double penetrationNormalY(double x, double y, double left, double top, double right,
+                                            double bottom) {
+        if (penetrationNormalX(x, y, left, top, right, bottom) != 0) {
+            return 0;
+        }
+        return (y - top <= bottom - y) ? -1 : 1;
+    }
+}
@@ -0,0 +1,212 @@
+package headless;
+
+import biuoop.DrawSurface;
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * CountingDrawSurface - a DrawSurface that draws nothing, and only counts the drawing commands it gets (and, of them,
+ *  the color changes and the images). It is used to run the game without a window, and to measure the cost of
+ *  drawing apart from the cost of showing the drawings.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class CountingDrawSurface implements DrawSurface {
+    // The size of the surface
+    private int width;
+    private int height;
+    // Number of drawing commands (not including setting the color)
+    private long drawCount;
+    // Number of times the color was set
+    private long colorCount;
+    // Number of images that were drawn
+    private long imageCount;
+
+    /**
+     * Constructor number 1 - creates a new CountingDrawSurface of the size of the game window (800 x 600).
+     */
+    public CountingDrawSurface() {
+        this(800, 600);
+    }
+    /**
+     * Constructor number 2 - creates a new CountingDrawSurface of the given size.
+     *
+     * @param width the width of the surface.
+     * @param height the height of the surface.
+     */
+    public CountingDrawSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+    /**
+     * Returns the number of drawing commands since the count was reset.
+     *
+     * @return the number of drawing commands.
+     */
+    public long getDrawCount() {
+        return this.drawCount;
+    }
+    /**
+     * Returns the number of times the color was set since the count was reset.
+     *
+     * @return the number of color changes.
+     */
+    public long getColorCount() {
+        return this.colorCount;
+    }
+    /**
+     * Returns the number of images that were drawn since the count was reset (they are counted as drawing commands
+     *  too).
+     *
+     * @return the number of images that were drawn.
+     */
+    public long getImageCount() {
+        return this.imageCount;
+    }
+    /**
+     * Resets the counts of the drawing commands, the color changes and the images.
+     */
+    public void resetCount() {
+        this.drawCount = 0;
+        this.colorCount = 0;
+        this.imageCount = 0;
+    }
+    /**
+     * Returns the width of the surface.
+     *
+     * @return the width of the surface.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+    /**
+     * Returns the height of the surface.
+     *
+     * @return the height of the surface.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+    /**
+     * Counts setting the color of the next drawings.
+     *
+     * @param color the color.
+     */
+    public void setColor(Color color) {
+        this.colorCount++;
+    }
+    /**
+     * Counts drawing a line.
+     *
+     * @param x1 the x value of the start of the line.
+     * @param y1 the y value of the start of the line.
+     * @param x2 the x value of the end of the line.
+     * @param y2 the y value of the end of the line.
+     */
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.drawCount++;
+    }
+    /**
+     * Counts drawing an oval.
+     *
+     * @param x the x value of the upper-left point of the oval.
+     * @param y the y value of the upper-left point of the oval.
+     * @param w the width of the oval.
+     * @param h the height of the oval.
+     */
+    public void drawOval(int x, int y, int w, int h) {
+        this.drawCount++;
+    }
+    /**
+     * Counts filling an oval.
+     *
+     * @param x the x value of the upper-left point of the oval.
+     * @param y the y value of the upper-left point of the oval.
+     * @param w the width of the oval.
+     * @param h the height of the oval.
+     */
+    public void fillOval(int x, int y, int w, int h) {
+        this.drawCount++;
+    }
+    /**
+     * Counts drawing a rectangle.
+     *
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param w the width of the rectangle.
+     * @param h the height of the rectangle.
+     */
+    public void drawRectangle(int x, int y, int w, int h) {
+        this.drawCount++;
+    }
+    /**
+     * Counts filling a rectangle.
+     *
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param w the width of the rectangle.
+     * @param h the height of the rectangle.
+     */
+    public void fillRectangle(int x, int y, int w, int h) {
+        this.drawCount++;
+    }
+    /**
+     * Counts drawing an image.
+     *
+     * @param x the x value of the upper-left point of the image.
+     * @param y the y value of the upper-left point of the image.
+     * @param image the image.
+     */
+    public void drawImage(int x, int y, Image image) {
+        this.drawCount++;
+        this.imageCount++;
+    }
+    /**
+     * Counts drawing a circle.
+     *
+     * @param x the x value of the center of the circle.
+     * @param y the y value of the center of the circle.
+     * @param r the radius of the circle.
+     */
+    public void drawCircle(int x, int y, int r) {
+        this.drawCount++;
+    }
+    /**
+     * Counts filling a circle.
+     *
+     * @param x the x value of the center of the circle.
+     * @param y the y value of the center of the circle.
+     * @param r the radius of the circle.
+     */
+    public void fillCircle(int x, int y, int r) {
+        this.drawCount++;
+    }
+    /**
+     * Counts drawing a text.
+     *
+     * @param x the x value of the start of the text.
+     * @param y the y value of the base line of the text.
+     * @param s the text.
+     * @param fontSize the size of the font.
+     */
+    public void drawText(int x, int y, String s, int fontSize) {
+        this.drawCount++;
+    }
+    /**
+     * Counts drawing a polygon.
+     *
+     * @param p the polygon.
+     */
+    public void drawPolygon(Polygon p) {
+        this.drawCount++;
+    }
+    /**
+     * Counts filling a polygon.
+     *
+     * @param p the polygon.
+     */
+    public void fillPolygon(Polygon p) {
+        this.drawCount++;
+    }
+}
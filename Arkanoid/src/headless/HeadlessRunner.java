@@ -0,0 +1,87 @@
+package headless;
+
+import animation.Animation;
+import animation.AnimationRunner;
+import animation.SteppedAnimation;
+import biuoop.DrawSurface;
+
+/**
+ * HeadlessRunner - an AnimationRunner that runs the animations without a window and without waiting between the
+ *  frames, so the game advances as fast as the CPU allows. The frames are drawn on a given DrawSurface (usually a
+ *  CountingDrawSurface), and a stepped animation can be drawn only every few frames, or not at all.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class HeadlessRunner extends AnimationRunner {
+    // The surface that the frames are drawn on
+    private DrawSurface surface;
+    // The scripted keyboard that is moved to the next frame after every frame (null if there is none)
+    private ScriptedKeyboard keyboard;
+    // A stepped animation is drawn every renderInterval frames (0 - never)
+    private int renderInterval;
+    // The number of frames after which the runs return (0 - no limit)
+    private long frameLimit;
+    // Number of frames that were run
+    private long frames;
+
+    /**
+     * Constructor - creates a new HeadlessRunner.
+     *
+     * @param surface the surface that the frames are drawn on.
+     * @param keyboard the scripted keyboard of the game (or null if there is none).
+     */
+    public HeadlessRunner(DrawSurface surface, ScriptedKeyboard keyboard) {
+        super(null);
+        this.surface = surface;
+        this.keyboard = keyboard;
+        this.renderInterval = 1;
+        this.frameLimit = 0;
+        this.frames = 0;
+    }
+    /**
+     * Sets how often a stepped animation is drawn: every given number of frames. Other animations are drawn in every
+     *  frame.
+     *
+     * @param interval the number of frames between drawings (0 - never draw).
+     */
+    public void setRenderInterval(int interval) {
+        this.renderInterval = interval;
+    }
+    /**
+     * Sets a limit to the number of frames (of all the runs). When the runner has run that many frames, the runs
+     *  return even if their animations should not stop.
+     *
+     * @param limit the number of frames after which the runs return (0 - no limit).
+     */
+    public void setFrameLimit(long limit) {
+        this.frameLimit = limit;
+    }
+    /**
+     * Returns the number of frames that were run (by all the runs).
+     *
+     * @return the number of frames.
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+    /**
+     * Runs the animation until it should stop (or until the limit of frames), without waiting between the frames.
+     *
+     * @param animation an animation object to run.
+     */
+    public void run(Animation animation) {
+        while (!animation.shouldStop() && ((this.frameLimit == 0) || (this.frames < this.frameLimit))) {
+            // A stepped animation that is not drawn in this frame only does a tick
+            if ((animation instanceof SteppedAnimation)
+                    && ((this.renderInterval == 0) || (this.frames % this.renderInterval != 0))) {
+                ((SteppedAnimation) animation).tick();
+            } else {
+                animation.doOneFrame(this.surface);
+            }
+            this.frames++;
+            if (this.keyboard != null) {
+                this.keyboard.nextFrame();
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package headless;
+
+import biuoop.KeyboardSensor;
+import game.GameLevel;
+import sprites.Paddle;
+import sprites.ball.Ball;
+import sprites.ball.BallSystem;
+
+/**
+ * PaddleController - a KeyboardSensor that plays the game: it presses the left and right keys to move the paddle
+ *  under the lowest falling ball.
+ *
+ * The paddle is not always centered under the ball, since then the ball would go straight up and down. Every time
+ *  a ball starts falling, the controller aims at the next point of a fixed list of points on the paddle, so the
+ *  ball bounces off in different directions. The first point depends on a seed, so different sessions play
+ *  differently, while a session with the same seed always plays the same way.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class PaddleController implements KeyboardSensor {
+    // The points of the paddle to aim at, as parts of its width from its center
+    private static final double[] AIMS = {0, -0.3, 0.15, 0.35, -0.1, 0.25, -0.35, 0.05, -0.2};
+    // The game that is played
+    private GameLevel level;
+    // The index of the current point to aim at
+    private int aim;
+    // Indication whether a ball was falling when the controller last looked
+    private boolean falling;
+
+    /**
+     * Constructor - creates a new PaddleController.
+     *
+     * @param seed the seed that chooses the first point to aim at.
+     */
+    public PaddleController(int seed) {
+        this.aim = Math.abs(seed % AIMS.length);
+        this.falling = false;
+    }
+    /**
+     * Sets the game that is played.
+     *
+     * @param game the game.
+     */
+    public void setLevel(GameLevel game) {
+        this.level = game;
+    }
+    /**
+     * Checks if the given key is pressed: the left (or right) key is pressed when the point to aim at is to the
+     *  right (or left) of the lowest falling ball.
+     *
+     * @param key the key.
+     * @return true if the key is pressed, false otherwise.
+     */
+    public boolean isPressed(String key) {
+        boolean left = key.equals(LEFT_KEY);
+        if ((this.level == null) || (!left && !key.equals(RIGHT_KEY))) {
+            return false;
+        }
+        Paddle paddle = this.level.getPaddle();
+        Ball target = this.findTarget();
+        if ((paddle == null) || (target == null)) {
+            return false;
+        }
+        double width = paddle.getCollisionRectangle().getWidth();
+        double aimX = paddle.getCollisionRectangle().getUpperLeft().getX() + (width / 2) + (AIMS[this.aim] * width);
+        // Don't move when the ball is near the point to aim at, so the paddle doesn't shake
+        double tolerance = width / 10;
+        if (left) {
+            return target.getX() < aimX - tolerance;
+        }
+        return target.getX() > aimX + tolerance;
+    }
+    /**
+     * Finds the lowest falling ball (or the lowest ball, if no ball is falling), and moves to the next point to aim
+     *  at when a ball starts falling.
+     *
+     * @return the ball to move the paddle under, or null if there are no balls.
+     */
+    private Ball findTarget() {
+        BallSystem balls = this.level.getBalls();
+        Ball lowest = null;
+        Ball lowestFalling = null;
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.getBall(i);
+            double dy = ball.getDy();
+            if ((lowest == null) || (ball.getY() > lowest.getY())) {
+                lowest = ball;
+            }
+            if ((dy > 0) && ((lowestFalling == null) || (ball.getY() > lowestFalling.getY()))) {
+                lowestFalling = ball;
+            }
+        }
+        if ((lowestFalling != null) && !this.falling) {
+            this.aim = (this.aim + 1) % AIMS.length;
+        }
+        this.falling = lowestFalling != null;
+        if (lowestFalling != null) {
+            return lowestFalling;
+        }
+        return lowest;
+    }
+}
@@ -0,0 +1,70 @@
+package headless;
+
+import biuoop.KeyboardSensor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ScriptedKeyboard - a KeyboardSensor that presses keys according to a script of frames, instead of a real
+ *  keyboard. The runner moves it to the next frame before every frame of the animation.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class ScriptedKeyboard implements KeyboardSensor {
+    // The pressed keys of the script, and the frames they are pressed in (from the start frame to before the end)
+    private List<String> keys;
+    private List<Long> starts;
+    private List<Long> ends;
+    // The current frame
+    private long frame;
+
+    /**
+     * Constructor - creates a new ScriptedKeyboard with an empty script, at frame 0.
+     */
+    public ScriptedKeyboard() {
+        this.keys = new ArrayList<String>();
+        this.starts = new ArrayList<Long>();
+        this.ends = new ArrayList<Long>();
+        this.frame = 0;
+    }
+    /**
+     * Adds a key press to the script.
+     *
+     * @param key the key.
+     * @param fromFrame the first frame the key is pressed in.
+     * @param toFrame the frame after the last frame the key is pressed in.
+     */
+    public void press(String key, long fromFrame, long toFrame) {
+        this.keys.add(key);
+        this.starts.add(fromFrame);
+        this.ends.add(toFrame);
+    }
+    /**
+     * Moves the keyboard to the next frame.
+     */
+    public void nextFrame() {
+        this.frame++;
+    }
+    /**
+     * Returns the current frame.
+     *
+     * @return the current frame.
+     */
+    public long getFrame() {
+        return this.frame;
+    }
+    /**
+     * Checks if the given key is pressed in the current frame.
+     *
+     * @param key the key.
+     * @return true if the key is pressed, false otherwise.
+     */
+    public boolean isPressed(String key) {
+        for (int i = 0; i < this.keys.size(); i++) {
+            if (this.keys.get(i).equals(key) && (this.starts.get(i) <= this.frame) && (this.frame < this.ends.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,271 @@
+package images;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ImageCache - a cache of the decoded images of the game, by their resource path, that is shared by the whole
+ *  program. Each image is read from the class path and decoded once, and then all the blocks, backgrounds and
+ *  screens that use it share it (the images must only be drawn, not changed).
+ *
+ * The cache also keeps the images that were prepared to be drawn (scaled or cropped by an ImagePreparer, into
+ *  images that are compatible with the screen), so an image is prepared once for every size it is drawn in.
+ *
+ * The cache is bounded by the size of the decoded images: when it grows over its limit, the least recently used
+ *  images are evicted. The images are kept by soft references, so the garbage collector can also clear them when
+ *  the memory is low - then they are decoded again on their next use.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class ImageCache {
+    // Default limit of the size of the decoded images in the shared cache (64 MB)
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    // The cache that is shared by the whole program
+    private static final ImageCache SHARED = new ImageCache(DEFAULT_MAX_BYTES);
+    // The limit of the size of the decoded images, and their size now
+    private long maxBytes;
+    private long bytes;
+    // The images by their resource paths (and sizes, for prepared images), from the least recently used to the most
+    // recently used
+    private Map<String, Entry> entries;
+    // Prepares the images to be drawn
+    private ImagePreparer preparer;
+    // Number of lookups that found their image, number of images that were decoded, and number of images that were
+    // evicted (or cleared by the garbage collector)
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor - creates a new empty ImageCache.
+     *
+     * @param maxBytes the limit of the size of the decoded images, in bytes.
+     */
+    public ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+        this.preparer = new ImagePreparer(ImagePreparer.SMOOTH);
+    }
+    /**
+     * Returns the cache that is shared by the whole program.
+     *
+     * @return the shared cache.
+     */
+    public static ImageCache getInstance() {
+        return SHARED;
+    }
+    /**
+     * Returns the image of the given resource path: from the cache, or read and decoded if it is not there.
+     *
+     * @param path the path of the image in the class path.
+     * @return the image (or null if it could not be loaded).
+     */
+    public synchronized BufferedImage get(String path) {
+        BufferedImage image = this.lookup(path);
+        if (image == null) {
+            image = load(path);
+            this.put(path, image);
+        }
+        return image;
+    }
+    /**
+     * Returns the image of the given resource path, prepared to be drawn in an area of the given size: scaled to the
+     *  size of the area, or cropped to the part of it that is in the area.
+     *
+     * @param path the path of the image in the class path.
+     * @param width the width of the area.
+     * @param height the height of the area.
+     * @param scale true to scale the image to the area, false to crop it to the area.
+     * @return the prepared image (or null if it could not be loaded).
+     */
+    public synchronized BufferedImage getPrepared(String path, int width, int height, boolean scale) {
+        String key = path + "@" + width + "x" + height;
+        if (scale) {
+            key += ":scaled:" + this.preparer.getQuality();
+        }
+        BufferedImage image = this.lookup(key);
+        if (image == null) {
+            BufferedImage source = this.get(path);
+            if (source == null) {
+                return null;
+            }
+            image = this.preparer.prepare(source, width, height, scale);
+            this.put(key, image);
+        }
+        return image;
+    }
+    /**
+     * Sets the preparer of the images. The images that were already prepared are kept as they are.
+     *
+     * @param imagePreparer the preparer of the images.
+     */
+    public synchronized void setPreparer(ImagePreparer imagePreparer) {
+        this.preparer = imagePreparer;
+    }
+    /**
+     * Returns the number of lookups that found their image in the cache.
+     *
+     * @return the number of hits.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+    /**
+     * Returns the number of lookups that did not find their image in the cache, so it was read and decoded (or
+     *  prepared).
+     *
+     * @return the number of misses.
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+    /**
+     * Returns the number of images that were evicted from the cache, or cleared by the garbage collector.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+    /**
+     * Returns the size of the decoded images in the cache (including images that the garbage collector cleared and
+     *  were not looked up since).
+     *
+     * @return the size of the images, in bytes.
+     */
+    public synchronized long getBytes() {
+        return this.bytes;
+    }
+    /**
+     * Returns the number of images in the cache.
+     *
+     * @return the number of images.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+    /**
+     * Removes all the images from the cache (the counters are kept).
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.bytes = 0;
+    }
+    /**
+     * Looks an image up in the cache, and counts a hit or a miss.
+     *
+     * @param key the key of the image.
+     * @return the image (or null if it is not in the cache).
+     */
+    private BufferedImage lookup(String key) {
+        Entry entry = this.entries.get(key);
+        if (entry != null) {
+            BufferedImage image = entry.image.get();
+            if (image != null) {
+                this.hits++;
+                return image;
+            }
+            // The garbage collector cleared the image
+            this.remove(key, entry);
+        }
+        this.misses++;
+        return null;
+    }
+    /**
+     * Adds an image to the cache, and evicts the least recently used images if the cache grew over its limit.
+     *
+     * @param key the key of the image.
+     * @param image the image (nothing is added if it is null).
+     */
+    private void put(String key, BufferedImage image) {
+        if (image != null) {
+            Entry entry = new Entry(image);
+            this.entries.put(key, entry);
+            this.bytes += entry.bytes;
+            this.trim();
+        }
+    }
+    /**
+     * Evicts the least recently used images until the size of the images is within the limit. The most recently used
+     *  image is kept even if it is over the limit by itself.
+     */
+    private void trim() {
+        Iterator<Entry> it = this.entries.values().iterator();
+        while ((this.bytes > this.maxBytes) && (this.entries.size() > 1)) {
+            Entry eldest = it.next();
+            it.remove();
+            this.bytes -= eldest.bytes;
+            this.evictions++;
+        }
+    }
+    /**
+     * Removes an image from the cache.
+     *
+     * @param key the key of the image.
+     * @param entry the entry of the image.
+     */
+    private void remove(String key, Entry entry) {
+        this.entries.remove(key);
+        this.bytes -= entry.bytes;
+        this.evictions++;
+    }
+    /**
+     * Reads and decodes an image from the class path.
+     *
+     * @param path the path of the image.
+     * @return the image (or null if it could not be loaded).
+     */
+    private static BufferedImage load(String path) {
+        // Load the image data into an java.awt.Image object
+        BufferedImage img = null;
+        InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream(path);
+        try {
+            if (is != null) {
+                img = ImageIO.read(is);
+            } else {
+                System.err.println("Image file not found.");
+            }
+        } catch (IOException e) {
+            System.err.println("Failed loading image.");
+        } finally {
+            try {
+                if (is != null) {
+                    is.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Failed closing Image file.");
+            }
+        }
+        return img;
+    }
+
+    /**
+     * Entry - an image in the cache, and its size.
+     */
+    private static class Entry {
+        // The image
+        private SoftReference<BufferedImage> image;
+        // The size of the pixels of the image, in bytes (as they are stored, so an RGB pixel in an int takes 4 bytes)
+        private long bytes;
+
+        /**
+         * Constructor - creates a new Entry.
+         *
+         * @param image the image.
+         */
+        Entry(BufferedImage image) {
+            this.image = new SoftReference<BufferedImage>(image);
+            DataBuffer data = image.getRaster().getDataBuffer();
+            // Every bank of the buffer has getSize() elements
+            this.bytes = (long) data.getSize() * data.getNumBanks()
+                    * DataBuffer.getDataTypeSize(data.getDataType()) / 8;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package images;
+
+import biuoop.DrawSurface;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+
+/**
+ * ImageDrawSurface - a DrawSurface that draws on an image, the same way the window of the game draws its surfaces.
+ *  It is used to draw parts of the game once, off the screen, and then draw them on the screen as an image.
+ *
+ * The drawings can be limited to a rectangle of the image (the clip), so a part of the image can be drawn again.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class ImageDrawSurface implements DrawSurface {
+    // The image, and the graphics that draw on it
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    /**
+     * Constructor - creates a new ImageDrawSurface.
+     *
+     * @param image the image to draw on.
+     */
+    public ImageDrawSurface(BufferedImage image) {
+        this.image = image;
+        this.graphics = image.createGraphics();
+    }
+    /**
+     * Limits the next drawings to the given rectangle of the image.
+     *
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param w the width of the rectangle.
+     * @param h the height of the rectangle.
+     */
+    public void setClip(int x, int y, int w, int h) {
+        this.graphics.setClip(x, y, w, h);
+    }
+    /**
+     * Releases the graphics of the surface. The surface can't be used after it is disposed.
+     */
+    public void dispose() {
+        this.graphics.dispose();
+    }
+    /**
+     * Returns the width of the surface.
+     *
+     * @return the width of the surface.
+     */
+    public int getWidth() {
+        return this.image.getWidth();
+    }
+    /**
+     * Returns the height of the surface.
+     *
+     * @return the height of the surface.
+     */
+    public int getHeight() {
+        return this.image.getHeight();
+    }
+    /**
+     * Sets the color of the next drawings.
+     *
+     * @param color the color.
+     */
+    public void setColor(Color color) {
+        this.graphics.setColor(color);
+    }
+    /**
+     * Draws a line.
+     *
+     * @param x1 the x value of the start of the line.
+     * @param y1 the y value of the start of the line.
+     * @param x2 the x value of the end of the line.
+     * @param y2 the y value of the end of the line.
+     */
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.graphics.drawLine(x1, y1, x2, y2);
+    }
+    /**
+     * Draws an oval.
+     *
+     * @param x the x value of the upper-left point of the oval.
+     * @param y the y value of the upper-left point of the oval.
+     * @param w the width of the oval.
+     * @param h the height of the oval.
+     */
+    public void drawOval(int x, int y, int w, int h) {
+        this.graphics.drawOval(x, y, w, h);
+    }
+    /**
+     * Fills an oval.
+     *
+     * @param x the x value of the upper-left point of the oval.
+     * @param y the y value of the upper-left point of the oval.
+     * @param w the width of the oval.
+     * @param h the height of the oval.
+     */
+    public void fillOval(int x, int y, int w, int h) {
+        this.graphics.fillOval(x, y, w, h);
+    }
+    /**
+     * Draws a rectangle.
+     *
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param w the width of the rectangle.
+     * @param h the height of the rectangle.
+     */
+    public void drawRectangle(int x, int y, int w, int h) {
+        this.graphics.drawRect(x, y, w, h);
+    }
+    /**
+     * Fills a rectangle.
+     *
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param w the width of the rectangle.
+     * @param h the height of the rectangle.
+     */
+    public void fillRectangle(int x, int y, int w, int h) {
+        this.graphics.fillRect(x, y, w, h);
+    }
+    /**
+     * Draws an image.
+     *
+     * @param x the x value of the upper-left point of the image.
+     * @param y the y value of the upper-left point of the image.
+     * @param img the image.
+     */
+    public void drawImage(int x, int y, Image img) {
+        this.graphics.drawImage(img, x, y, null);
+    }
+    /**
+     * Draws a circle.
+     *
+     * @param x the x value of the center of the circle.
+     * @param y the y value of the center of the circle.
+     * @param r the radius of the circle.
+     */
+    public void drawCircle(int x, int y, int r) {
+        this.graphics.drawOval(x - r, y - r, r * 2, r * 2);
+    }
+    /**
+     * Fills a circle.
+     *
+     * @param x the x value of the center of the circle.
+     * @param y the y value of the center of the circle.
+     * @param r the radius of the circle.
+     */
+    public void fillCircle(int x, int y, int r) {
+        this.graphics.fillOval(x - r, y - r, r * 2, r * 2);
+    }
+    /**
+     * Draws a text, in the font of the graphics at the given size.
+     *
+     * @param x the x value of the start of the text.
+     * @param y the y value of the base line of the text.
+     * @param s the text.
+     * @param fontSize the size of the font.
+     */
+    public void drawText(int x, int y, String s, int fontSize) {
+        Font font = this.graphics.getFont();
+        this.graphics.setFont(new Font(font.getFontName(), font.getStyle(), fontSize));
+        this.graphics.drawString(s, x, y);
+    }
+    /**
+     * Draws a polygon.
+     *
+     * @param p the polygon.
+     */
+    public void drawPolygon(Polygon p) {
+        this.graphics.drawPolygon(p);
+    }
+    /**
+     * Fills a polygon.
+     *
+     * @param p the polygon.
+     */
+    public void fillPolygon(Polygon p) {
+        this.graphics.fillPolygon(p);
+    }
+}
@@ -0,0 +1,161 @@
+package images;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+
+/**
+ * ImagePreparer - prepares decoded images to be drawn on the screen: it scales them (or crops them) once, eagerly,
+ *  into images that are compatible with the screen (of the pixel format of the screen, so the blits need no
+ *  conversion and can be accelerated). An image with an alpha channel whose pixels are all opaque is prepared as an
+ *  opaque image, since blending is much slower than copying. Without a screen (in headless mode), the images are of
+ *  the default RGB formats (with premultiplied alpha).
+ *
+ * The quality of the scaling is one of FAST (nearest neighbor), SMOOTH (bilinear) and BEST (bicubic, after halving
+ *  the image with bilinear filtering while it is more than twice the size).
+ *
+ * @author Ayelet Tennenboim
+ */
+public class ImagePreparer {
+    /**
+     * Scaling quality: nearest neighbor.
+     */
+    public static final int FAST = 0;
+    /**
+     * Scaling quality: bilinear.
+     */
+    public static final int SMOOTH = 1;
+    /**
+     * Scaling quality: bicubic, after halving the image while it is more than twice the size.
+     */
+    public static final int BEST = 2;
+    // The quality of the scaling
+    private int quality;
+
+    /**
+     * Constructor - creates a new ImagePreparer.
+     *
+     * @param quality the quality of the scaling (FAST, SMOOTH or BEST).
+     */
+    public ImagePreparer(int quality) {
+        this.quality = quality;
+    }
+    /**
+     * Returns the quality of the scaling.
+     *
+     * @return the quality of the scaling (FAST, SMOOTH or BEST).
+     */
+    public int getQuality() {
+        return this.quality;
+    }
+    /**
+     * Prepares an image to be drawn in an area of the given size: scales the image to the size of the area, or
+     *  keeps only the part of the image that is in the area when it is drawn at its upper-left corner.
+     *
+     * @param source the image.
+     * @param width the width of the area.
+     * @param height the height of the area.
+     * @param scale true to scale the image to the area, false to crop it to the area.
+     * @return the prepared image, compatible with the screen.
+     */
+    public BufferedImage prepare(Image source, int width, int height, boolean scale) {
+        int transparency = Transparency.TRANSLUCENT;
+        if (source instanceof BufferedImage) {
+            transparency = isOpaque((BufferedImage) source) ? Transparency.OPAQUE
+                    : ((BufferedImage) source).getTransparency();
+        }
+        if (!scale) {
+            int w = Math.min(width, source.getWidth(null));
+            int h = Math.min(height, source.getHeight(null));
+            return draw(source, source.getWidth(null), source.getHeight(null), w, h, transparency,
+                    RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        }
+        Image image = source;
+        int w = source.getWidth(null);
+        int h = source.getHeight(null);
+        Object interpolation = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+        if (this.quality == SMOOTH) {
+            interpolation = RenderingHints.VALUE_INTERPOLATION_BILINEAR;
+        } else if (this.quality == BEST) {
+            // Halve the image while it is more than twice the size, so every pixel is used
+            while ((w / 2 >= width) && (h / 2 >= height)) {
+                w /= 2;
+                h /= 2;
+                image = draw(image, w, h, w, h, transparency, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            }
+            interpolation = RenderingHints.VALUE_INTERPOLATION_BICUBIC;
+        }
+        return draw(image, width, height, width, height, transparency, interpolation);
+    }
+    /**
+     * Checks whether all the pixels of an image are opaque.
+     *
+     * @param image the image.
+     * @return true if all the pixels of the image are opaque, false otherwise.
+     */
+    private static boolean isOpaque(BufferedImage image) {
+        WritableRaster alpha = image.getAlphaRaster();
+        if (alpha == null) {
+            return true;
+        }
+        int max = (1 << image.getColorModel().getComponentSize(image.getColorModel().getNumComponents() - 1)) - 1;
+        int[] row = new int[alpha.getWidth()];
+        for (int y = 0; y < alpha.getHeight(); y++) {
+            alpha.getSamples(0, y, alpha.getWidth(), 1, 0, row);
+            for (int a : row) {
+                if (a != max) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    /**
+     * Draws an image, scaled to the given size, on a new image that is compatible with the screen.
+     *
+     * @param source the image.
+     * @param drawWidth the width to scale the image to.
+     * @param drawHeight the height to scale the image to.
+     * @param width the width of the new image.
+     * @param height the height of the new image.
+     * @param transparency the transparency of the new image.
+     * @param interpolation the interpolation rendering hint.
+     * @return the new image.
+     */
+    private static BufferedImage draw(Image source, int drawWidth, int drawHeight, int width, int height,
+                                      int transparency, Object interpolation) {
+        BufferedImage image = createCompatibleImage(width, height, transparency);
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, drawWidth, drawHeight, null);
+        g.dispose();
+        return image;
+    }
+    /**
+     * Creates an empty image that is compatible with the screen (or of a default RGB format, without a screen).
+     *
+     * @param width the width of the image.
+     * @param height the height of the image.
+     * @param transparency the transparency of the image.
+     * @return the new image.
+     */
+    public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return configuration.createCompatibleImage(width, height, transparency);
+        }
+        if (transparency == Transparency.OPAQUE) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+}
@@ -68,6 +68,15 @@ public class BlocksFromSymbolsFactory {
     public Block getBlock(String s, int xpos, int ypos) {
         return this.blockCreators.get(s).create(xpos, ypos);
     }
+    /**
+     * Returns the block creator associated with the given block-symbol.
+     *
+     * @param s a block-symbol.
+     * @return the block creator associated with the given block-symbol.
+     */
+    public BlockCreator getBlockCreator(String s) {
+        return this.blockCreators.get(s);
+    }
     /**
      * Returns the width in pixels associated with the given spacer-symbol.
      *
@@ -3,12 +3,15 @@ package levels;
 import geometricshapes.Point;
 import geometricshapes.Rectangle;
 import sprites.Block;
+import sprites.BlockFills;
 import java.awt.Color;
 import java.util.HashMap;
 
 /**
  * Creator - an object of this class is a factory-object that is used for creating blocks.
  *
+ * The fills of the blocks are parsed once, when the creator is created, and all the blocks it creates share them.
+ *
  * @author Ayelet Tennenboim
  */
 public class Creator implements BlockCreator {
@@ -16,12 +19,10 @@ public class Creator implements BlockCreator {
     private double width;
     // Height
     private double height;
-    // Fill
-    private String fill;
+    // The fills by the number of hit-points
+    private BlockFills fills;
     // Stroke color
     private Color strokeColor;
-    // HashMap of fills
-    private HashMap<Integer, String> fillHashMap;
     // Number of hits that left to reach 0
     private int hitPoints;
 
@@ -39,9 +40,8 @@ public class Creator implements BlockCreator {
                    int hitPoints) {
         this.width = width;
         this.height = height;
-        this.fill = fill;
+        this.fills = new BlockFills(fill, fillHashMap);
         this.strokeColor = strokeColor;
-        this.fillHashMap = fillHashMap;
         this.hitPoints = hitPoints;
     }
     /**
@@ -53,8 +53,48 @@ public class Creator implements BlockCreator {
      */
     public Block create(int xpos, int ypos) {
         Point upperLeft = new Point(xpos, ypos);
-        Block block = new Block(new Rectangle(upperLeft, this.width, this.height), this.fill, this.strokeColor,
-                this.fillHashMap, this.hitPoints);
+        Block block = new Block(new Rectangle(upperLeft, this.width, this.height), this.fills, this.strokeColor,
+                this.hitPoints);
         return block;
     }
+    /**
+     * Returns the width of the blocks.
+     *
+     * @return the width of the blocks.
+     */
+    public double getWidth() {
+        return this.width;
+    }
+    /**
+     * Returns the height of the blocks.
+     *
+     * @return the height of the blocks.
+     */
+    public double getHeight() {
+        return this.height;
+    }
+    /**
+     * Returns the fills of the blocks by the number of hit-points.
+     *
+     * @return the fills of the blocks.
+     */
+    public BlockFills getFills() {
+        return this.fills;
+    }
+    /**
+     * Returns the stroke color of the blocks.
+     *
+     * @return the stroke color of the blocks.
+     */
+    public Color getStrokeColor() {
+        return this.strokeColor;
+    }
+    /**
+     * Returns the number of hit-points of a new block.
+     *
+     * @return the number of hit-points of a new block.
+     */
+    public int getHitPoints() {
+        return this.hitPoints;
+    }
 }
@@ -3,12 +3,14 @@ package levels;
 import sprites.Background;
 import sprites.Block;
 import sprites.Sprite;
+import sprites.TileMap;
 import sprites.ball.Velocity;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Level - this class specifies the information required to the level.
@@ -16,10 +18,14 @@ import java.util.List;
  * @author Ayelet Tennenboim
  */
 public class Level implements LevelInformation {
+    // Minimum number of blocks in a level that is laid out as a tile map
+    public static final int TILE_MAP_MIN_BLOCKS = 1000;
     // HashMap with fields and their values
     private HashMap<String, String> fieldsHashMap;
     // List with the block Layout
     private List<String> blockLayout;
+    // The block factory of the level (null until the block definitions are read)
+    private BlocksFromSymbolsFactory blockFactory;
 
     /**
      * Constructor - creates a new Level.
@@ -102,15 +108,8 @@ public class Level implements LevelInformation {
         // Get x and y of the layout starting point
         int xPos = Integer.parseInt(this.fieldsHashMap.get("blocks_start_x"));
         int yPos = Integer.parseInt(this.fieldsHashMap.get("blocks_start_y"));
-        BlocksFromSymbolsFactory blockFactory = null;
-        try {
-            // Create the block factory from the file
-            blockFactory = BlockDefinitionsReader.fromReader(new BufferedReader(new InputStreamReader(
-                    ClassLoader.getSystemClassLoader().getResourceAsStream(fieldsHashMap.get("block_definitions")))));
-        } catch (Exception e) {
-            System.err.println("Missing file.");
-            System.exit(0);
-        }
+        // Create the block factory from the file
+        BlocksFromSymbolsFactory blockFactory = this.readBlockFactory();
         // Go over the rows of blocks from the blocks layout
         for (int i = 0; i < this.blockLayout.size(); i++) {
             // Split the row to chars
@@ -133,6 +132,84 @@ public class Level implements LevelInformation {
         // Return the blocks list
         return blocksList;
     }
+    /**
+     * Returns the blocks that make up the level as a tile map. The level is laid out as a tile map if it has at least
+     *  TILE_MAP_MIN_BLOCKS blocks, and all its blocks and spacers have the same (whole) width - so every symbol of the
+     *  layout is a cell of a grid. A smaller level is rejected before its block definitions are read.
+     *
+     * @return a tile map of the blocks, or null if the level should use blocks().
+     */
+    public TileMap tileMap() {
+        if (this.numberOfBlocksToRemove() < TILE_MAP_MIN_BLOCKS) {
+            return null;
+        }
+        BlocksFromSymbolsFactory blockFactory = this.readBlockFactory();
+        int rowHeight = Integer.parseInt(this.fieldsHashMap.get("row_height"));
+        // Find the width of a cell, and the number of columns and blocks
+        double cellWidth = 0;
+        int columns = 0;
+        int numberOfBlocks = 0;
+        for (String line : this.blockLayout) {
+            int column = 0;
+            for (char c : line.toCharArray()) {
+                String symbol = String.valueOf(c);
+                double width;
+                if (blockFactory.isBlockSymbol(symbol)) {
+                    // Only blocks of a known kind, that fit in a row, can be tiles
+                    if (!(blockFactory.getBlockCreator(symbol) instanceof Creator)) {
+                        return null;
+                    }
+                    Creator creator = (Creator) blockFactory.getBlockCreator(symbol);
+                    if (!TileMap.fits(creator.getHeight(), rowHeight, creator.getHitPoints())) {
+                        return null;
+                    }
+                    width = creator.getWidth();
+                    numberOfBlocks++;
+                } else if (blockFactory.isSpaceSymbol(symbol)) {
+                    width = blockFactory.getSpaceWidth(symbol);
+                } else {
+                    continue;
+                }
+                if ((cellWidth != 0) && (width != cellWidth)) {
+                    return null;
+                }
+                cellWidth = width;
+                column++;
+            }
+            columns = Math.max(columns, column);
+        }
+        if ((numberOfBlocks < TILE_MAP_MIN_BLOCKS) || (cellWidth != Math.floor(cellWidth)) || (cellWidth <= 0)) {
+            return null;
+        }
+        // Put the blocks in the tile map
+        TileMap tileMap = new TileMap(Integer.parseInt(this.fieldsHashMap.get("blocks_start_x")),
+                Integer.parseInt(this.fieldsHashMap.get("blocks_start_y")), cellWidth, rowHeight, columns,
+                this.blockLayout.size());
+        Map<String, Integer> types = new HashMap<>();
+        for (int i = 0; i < this.blockLayout.size(); i++) {
+            int column = 0;
+            for (char c : this.blockLayout.get(i).toCharArray()) {
+                String symbol = String.valueOf(c);
+                if (blockFactory.isBlockSymbol(symbol)) {
+                    if (!types.containsKey(symbol)) {
+                        Creator creator = (Creator) blockFactory.getBlockCreator(symbol);
+                        int type = tileMap.addType(creator.getHeight(), creator.getFills(), creator.getStrokeColor(),
+                                creator.getHitPoints());
+                        // If there are too many kinds of blocks
+                        if (type < 0) {
+                            return null;
+                        }
+                        types.put(symbol, type);
+                    }
+                    tileMap.setTile(column, i, types.get(symbol));
+                    column++;
+                } else if (blockFactory.isSpaceSymbol(symbol)) {
+                    column++;
+                }
+            }
+        }
+        return tileMap;
+    }
     /**
      * Returns number of blocks that should be removed before the level is considered to be "cleared".
      *
@@ -141,4 +218,24 @@ public class Level implements LevelInformation {
     public int numberOfBlocksToRemove() {
         return Integer.parseInt(this.fieldsHashMap.get("num_blocks"));
     }
+    /**
+     * Returns the block factory of the level. The block definitions are read once, and the factory is shared by
+     *  tileMap() and blocks().
+     *
+     * @return the block factory of the level.
+     */
+    private BlocksFromSymbolsFactory readBlockFactory() {
+        if (this.blockFactory != null) {
+            return this.blockFactory;
+        }
+        try {
+            // Create the block factory from the file
+            this.blockFactory = BlockDefinitionsReader.fromReader(new BufferedReader(new InputStreamReader(
+                    ClassLoader.getSystemClassLoader().getResourceAsStream(fieldsHashMap.get("block_definitions")))));
+        } catch (Exception e) {
+            System.err.println("Missing file.");
+            System.exit(0);
+        }
+        return this.blockFactory;
+    }
 }
\ No newline at end of file
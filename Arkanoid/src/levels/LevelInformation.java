@@ -2,6 +2,7 @@ package levels;
 
 import sprites.Block;
 import sprites.Sprite;
+import sprites.TileMap;
 import sprites.ball.Velocity;
 import java.util.List;
 
@@ -53,6 +54,13 @@ public interface LevelInformation {
      * @return a list of blocks that make up the level.
      */
     List<Block> blocks();
+    /**
+     * Returns the blocks that make up the level as a tile map, if the level is big enough and its blocks can be laid
+     *  out on a grid (then blocks() should not be used).
+     *
+     * @return a tile map of the blocks, or null if the level should use blocks().
+     */
+    TileMap tileMap();
     /**
      * Returns number of blocks that should be removed before the level is considered to be "cleared".
      *
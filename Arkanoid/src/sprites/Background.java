@@ -2,19 +2,17 @@ package sprites;
 
 import biuoop.DrawSurface;
 import game.GameLevel;
+import images.ImageCache;
 import levels.ColorsParser;
-import javax.imageio.ImageIO;
 import java.awt.Color;
 import java.awt.Image;
-import java.io.IOException;
-import java.io.InputStream;
 
 /**
  * Background - this class is in charge of the background of the level.
  *
  * @author Ayelet Tennenboim
  */
-public class Background implements Sprite {
+public class Background implements StaticSprite {
     private String background;
     private Image image;
     private Color color;
@@ -45,7 +43,8 @@ public class Background implements Sprite {
         }
     }
     /**
-     * Loads the image for the background.
+     * Loads the image for the background: the image is scaled to the size of the screen once, into an image that is
+     *  compatible with the screen, and it is kept in the shared image cache.
      *
      * @return an image for the background.
      */
@@ -53,29 +52,7 @@ public class Background implements Sprite {
         String[] backgroundSplit = this.background.split("\\(");
         if (backgroundSplit[0].equals("image")) {
             String imageName = backgroundSplit[1].replace(")", "");
-            // Load the image data into an java.awt.Image object
-            Image img = null;
-            Image newImage = null;
-            InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream(imageName);
-            try {
-                if (is != null) {
-                    img = ImageIO.read(is);
-                    newImage = img.getScaledInstance(800, 600, Image.SCALE_DEFAULT);
-                } else {
-                    System.err.println("Image file not found.");
-                }
-            } catch (IOException e) {
-                System.err.println("Failed loading background image.");
-            } finally {
-                try {
-                    if (is != null) {
-                        is.close();
-                    }
-                } catch (IOException e) {
-                    System.err.println("Failed closing Image file.");
-                }
-            }
-            return newImage;
+            return ImageCache.getInstance().getPrepared(imageName, 800, 600, true);
         }
         return null;
     }
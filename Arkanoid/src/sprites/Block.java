@@ -5,16 +5,11 @@ import game.GameLevel;
 import geometricshapes.Point;
 import hitting.HitListener;
 import hitting.HitNotifier;
-import levels.ColorsParser;
 import sprites.ball.Ball;
 import sprites.ball.Velocity;
 import geometricshapes.Rectangle;
 import biuoop.DrawSurface;
-import javax.imageio.ImageIO;
-import java.awt.Image;
 import java.awt.Color;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -24,26 +19,22 @@ import java.util.List;
  *
  * @author Ayelet Tennenboim
  */
-public class Block implements Collidable, Sprite, HitNotifier {
+public class Block implements Collidable, StaticSprite, TrackedSprite, HitNotifier {
     // The location and size of the block (specified using a Rectangle)
     private Rectangle shape;
     // Number of hits that left to reach 0
     private int hitPoints;
-    // Fill (color or image)
-    private String fill;
+    // The number of hit-points that the block was last drawn with (-1 if it was not drawn yet)
+    private int drawnHitPoints;
+    // The fills (color or image) by the number of hit-points
+    private BlockFills fills;
     // Stroke color
     private Color strokeColor;
-    // HashMap of fills
-    private HashMap<Integer, String> fillHashMap;
-    // HashMap of images to fill
-    private HashMap<Integer, Image> imageHashMap;
-    // Default Image to fill
-    private Image defaultImage;
     // A list of listeners to notify them about a hit event
     private List<HitListener> hitListeners;
 
     /**
-     * Constructor - creates a new block.
+     * Constructor number 1 - creates a new block, and parses its fills.
      *
      * @param rec the rectangle that defines the block.
      * @param fill the fill of the block (color or image).
@@ -52,14 +43,24 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param hitPoints number of hits that left to reach 0.
      */
     public Block(Rectangle rec, String fill, Color strokeColor, HashMap<Integer, String> fillHashMap, int hitPoints) {
+        this(rec, new BlockFills(fill, fillHashMap), strokeColor, hitPoints);
+    }
+    /**
+     * Constructor number 2 - creates a new block with fills that were already parsed (they can be shared by many
+     *  blocks).
+     *
+     * @param rec the rectangle that defines the block.
+     * @param fills the fills of the block by the number of hit-points.
+     * @param strokeColor the stroke color.
+     * @param hitPoints number of hits that left to reach 0.
+     */
+    public Block(Rectangle rec, BlockFills fills, Color strokeColor, int hitPoints) {
         this.shape = rec;
         this.hitPoints = hitPoints;
-        this.fill = fill;
+        this.drawnHitPoints = -1;
+        this.fills = fills;
         this.strokeColor = strokeColor;
-        this.fillHashMap = fillHashMap;
         this.hitListeners = new ArrayList<>();
-        this.imageHashMap = loadImages();
-        this.defaultImage = loadDefaultImage();
     }
     /**
      * Returns the "collision shape" of the object.
@@ -77,117 +78,61 @@ public class Block implements Collidable, Sprite, HitNotifier {
     public int getHitPoints() {
         return this.hitPoints;
     }
+    /**
+     * Returns the fills of the block by the number of hit-points.
+     *
+     * @return the fills of the block.
+     */
+    public BlockFills getFills() {
+        return this.fills;
+    }
     /**
      * Draws the block on the given DrawSurface.
      *
      * @param surface a surface to draw on it.
      */
     public void drawOn(DrawSurface surface) {
-        // Create a colors parser
-        ColorsParser colorsParser = new ColorsParser();
+        int x = (int) this.shape.getUpperLeft().getX();
+        int y = (int) this.shape.getUpperLeft().getY();
+        int width = (int) this.shape.getWidth();
+        int height = (int) this.shape.getHeight();
         // Fill the block
-        if ((fillHashMap != null) && (fillHashMap.containsKey(this.hitPoints))) {
-            String[] fillSplit = fillHashMap.get(this.hitPoints).split("\\(");
-            if (fillSplit[0].equals("color")) {
-                surface.setColor(colorsParser.colorFromString(fillHashMap.get(this.hitPoints)));
-                surface.fillRectangle((int) this.shape.getUpperLeft().getX(), (int) this.shape.getUpperLeft().getY(),
-                        (int) this.shape.getWidth(), (int) this.shape.getHeight());
-            } else {
-                Image img = this.imageHashMap.get(this.hitPoints);
-                // Draw the image on a DrawSurface
-                surface.drawImage((int) this.shape.getUpperLeft().getX(), (int) this.shape.getUpperLeft().getY(), img);
-            }
-        } else {
-            String[] fillSplit = fill.split("\\(");
-            if (fillSplit[0].equals("color")) {
-                surface.setColor(colorsParser.colorFromString(fill));
-                surface.fillRectangle((int) this.shape.getUpperLeft().getX(), (int) this.shape.getUpperLeft().getY(),
-                        (int) this.shape.getWidth(), (int) this.shape.getHeight());
-            } else {
-                Image img = this.defaultImage;
-                // Draw the image on a DrawSurface
-                surface.drawImage((int) this.shape.getUpperLeft().getX(), (int) this.shape.getUpperLeft().getY(), img);
-            }
+        Fill fill = this.fills.get(this.hitPoints);
+        if (fill != null) {
+            fill.drawOn(surface, x, y, width, height);
         }
         // Draw the block
         if (this.strokeColor != null) {
             surface.setColor(this.strokeColor);
-            surface.drawRectangle((int) this.shape.getUpperLeft().getX(), (int) this.shape.getUpperLeft().getY(),
-                    (int) this.shape.getWidth(), (int) this.shape.getHeight());
+            surface.drawRectangle(x, y, width, height);
         }
     }
     /**
-     * Loads the images for this block.
+     * Adds the area of the block (with its stroke) to the given region, if its hit-points changed since it was last
+     *  drawn (or if it was not drawn yet).
      *
-     * @return HashMap of the images.
+     * @param region the areas that changed.
+     * @param alpha the part of the way that the moving sprites are drawn at (the block does not move).
      */
-    public HashMap<Integer, Image> loadImages() {
-        HashMap<Integer, Image> imagesMap = new HashMap<>();
-         for (int i = 1; i <= this.hitPoints; i++) {
-            if (this.fillHashMap.containsKey(i)) {
-                String[] fillSplit = this.fillHashMap.get(i).split("\\(");
-                if (fillSplit[0].equals("image")) {
-                    String imageName = fillSplit[1].replace(")", "");
-                    // Load the image data into an java.awt.Image object
-                    Image img = null;
-                    InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream(imageName);
-                    try {
-                        if (is != null) {
-                            img = ImageIO.read(is);
-                        } else {
-                            System.err.println("Image file not found.");
-                        }
-                    } catch (IOException e) {
-                        System.err.println("Failed loading block image.");
-                    } finally {
-                        try {
-                            if (is != null) {
-                                is.close();
-                            }
-                        } catch (IOException e) {
-                            System.err.println("Failed closing Image file.");
-                        }
-                    }
-                    imagesMap.put(i, img);
-                }
-            }
-         }
-         return imagesMap;
+    public void addDirtyAreas(DirtyRegion region, double alpha) {
+        if (this.hitPoints == this.drawnHitPoints) {
+            return;
+        }
+        this.drawnHitPoints = this.hitPoints;
+        // The stroke is drawn one pixel to the right and below the rectangle
+        region.add((int) this.shape.getUpperLeft().getX(), (int) this.shape.getUpperLeft().getY(),
+                (int) this.shape.getWidth() + 1, (int) this.shape.getHeight() + 1);
     }
     /**
-     * Loads the default image.
+     * Checks if the area of the block (with its stroke) intersects a rectangle of the given region.
      *
-     * @return the default image.
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     * @return true if the block is drawn in the rectangle, false otherwise.
      */
-    public Image loadDefaultImage() {
-        if (this.fill != null) {
-            String[] fillSplit = this.fill.split("\\(");
-            if (fillSplit[0].equals("image")) {
-                String imageName = fillSplit[1].replace(")", "");
-                // Load the image data into an java.awt.Image object
-                Image img = null;
-                InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream(imageName);
-                try {
-                    if (is != null) {
-                        img = ImageIO.read(is);
-                    } else {
-                        System.err.println("Image file not found.");
-                    }
-                } catch (IOException e) {
-                    System.err.println("Failed loading block image.");
-                } finally {
-                    try {
-                        if (is != null) {
-                            is.close();
-                        }
-                    } catch (IOException e) {
-                        System.err.println("Failed closing Image file.");
-                    }
-                }
-                return img;
-            }
-        }
-        return null;
+    public boolean isDrawnIn(DirtyRegion region, int i) {
+        return region.intersects(i, (int) this.shape.getUpperLeft().getX(), (int) this.shape.getUpperLeft().getY(),
+                (int) this.shape.getWidth() + 1, (int) this.shape.getHeight() + 1);
     }
     /**
      * Draws the number of hit-points on the block.
@@ -0,0 +1,82 @@
+package sprites;
+
+import images.ImageCache;
+import levels.ColorsParser;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BlockFills - the fills of a kind of block, by its number of hit-points: the fill of each number of hit-points that
+ *  has its own fill, and a default fill for the others. The fill definitions are parsed once, when the kind of block
+ *  is defined, so drawing a block only looks its fill up in an array. The images come from the shared ImageCache.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class BlockFills {
+    // The fill of each number of hit-points (the default fill where there is no fill of its own)
+    private Fill[] fills;
+    // The fill of any other number of hit-points (null if there is none)
+    private Fill defaultFill;
+
+    /**
+     * Constructor - creates new BlockFills from fill definitions ("color(...)" or "image(...)").
+     *
+     * @param fill the default fill definition (or null if every number of hit-points has its own fill).
+     * @param fillHashMap the fill definitions by number of hit-points (or null if there are none).
+     */
+    public BlockFills(String fill, Map<Integer, String> fillHashMap) {
+        // Parse each definition once, even if a few numbers of hit-points share it
+        Map<String, Fill> parsed = new HashMap<String, Fill>();
+        this.defaultFill = parse(fill, parsed);
+        int size = 0;
+        if (fillHashMap != null) {
+            for (Integer points : fillHashMap.keySet()) {
+                size = Math.max(size, points + 1);
+            }
+        }
+        this.fills = new Fill[size];
+        for (int i = 0; i < size; i++) {
+            if (fillHashMap.containsKey(i)) {
+                this.fills[i] = parse(fillHashMap.get(i), parsed);
+            } else {
+                this.fills[i] = this.defaultFill;
+            }
+        }
+    }
+    /**
+     * Returns the fill of a block with the given number of hit-points.
+     *
+     * @param hitPoints the number of hit-points.
+     * @return the fill (or null if there is none).
+     */
+    public Fill get(int hitPoints) {
+        if ((hitPoints >= 0) && (hitPoints < this.fills.length)) {
+            return this.fills[hitPoints];
+        }
+        return this.defaultFill;
+    }
+    /**
+     * Parses a fill definition: a color or an image.
+     *
+     * @param definition the fill definition (or null).
+     * @param parsed the fills that were already parsed, by their definitions.
+     * @return the fill (or null if the definition is null or unknown).
+     */
+    private static Fill parse(String definition, Map<String, Fill> parsed) {
+        if (definition == null) {
+            return null;
+        }
+        if (parsed.containsKey(definition)) {
+            return parsed.get(definition);
+        }
+        Fill fill = null;
+        String[] fillSplit = definition.split("\\(");
+        if (fillSplit[0].equals("color")) {
+            fill = new ColorFill(new ColorsParser().colorFromString(definition));
+        } else if (fillSplit[0].equals("image")) {
+            fill = new ImageFill(ImageCache.getInstance().get(fillSplit[1].replace(")", "")));
+        }
+        parsed.put(definition, fill);
+        return fill;
+    }
+}
@@ -0,0 +1,44 @@
+package sprites;
+
+import biuoop.DrawSurface;
+import java.awt.Color;
+
+/**
+ * ColorFill - a fill of a solid color.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class ColorFill implements Fill {
+    // Color
+    private Color color;
+
+    /**
+     * Constructor - creates a new ColorFill.
+     *
+     * @param color the color of the fill.
+     */
+    public ColorFill(Color color) {
+        this.color = color;
+    }
+    /**
+     * Returns the color of the fill.
+     *
+     * @return the color of the fill.
+     */
+    public Color getColor() {
+        return this.color;
+    }
+    /**
+     * Fills the given rectangle with the color.
+     *
+     * @param surface a surface to draw on it.
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param width the width of the rectangle.
+     * @param height the height of the rectangle.
+     */
+    public void drawOn(DrawSurface surface, int x, int y, int width, int height) {
+        surface.setColor(this.color);
+        surface.fillRectangle(x, y, width, height);
+    }
+}
@@ -0,0 +1,252 @@
+package sprites;
+
+/**
+ * DirtyRegion - the areas of the screen that changed since a frame was drawn, kept as a short list of rectangles.
+ *
+ * Rectangles that overlap or touch are merged into the rectangle that bounds them (so the old and the new area of a
+ *  sprite that moved a little become one rectangle), and so are rectangles that are close to each other: every
+ *  rectangle costs a clear, a drawing of the background and a check of every sprite against it, and a sprite that is
+ *  in two close rectangles is drawn twice, so drawing a few more pixels costs less than another rectangle. When
+ *  there are too many rectangles, they are all merged into the rectangle that bounds them. The rectangles are clipped
+ *  to the screen, and they do not overlap.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class DirtyRegion {
+    // Maximum number of separate rectangles (more rectangles are merged into one)
+    private static final int MAX_RECTANGLES = 16;
+    // Number of pixels that merging two rectangles may add (the pixels in the rectangle that bounds them, but in
+    //  none of them)
+    private static final long MERGE_SLACK = 4096;
+    // The size of the screen
+    private int width;
+    private int height;
+    // The rectangles - the upper-left and the lower-right (exclusive) corner of each rectangle
+    private int[] minX;
+    private int[] minY;
+    private int[] maxX;
+    private int[] maxY;
+    // Number of rectangles
+    private int count;
+
+    /**
+     * Constructor - creates a new empty DirtyRegion.
+     *
+     * @param width the width of the screen.
+     * @param height the height of the screen.
+     */
+    public DirtyRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.minX = new int[MAX_RECTANGLES];
+        this.minY = new int[MAX_RECTANGLES];
+        this.maxX = new int[MAX_RECTANGLES];
+        this.maxY = new int[MAX_RECTANGLES];
+    }
+    /**
+     * Adds a rectangle to the region.
+     *
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param w the width of the rectangle.
+     * @param h the height of the rectangle.
+     */
+    public void add(int x, int y, int w, int h) {
+        int x1 = Math.max(0, x);
+        int y1 = Math.max(0, y);
+        int x2 = Math.min(this.width, x + w);
+        int y2 = Math.min(this.height, y + h);
+        if ((x1 >= x2) || (y1 >= y2)) {
+            return;
+        }
+        // Merge the rectangles that overlap, touch or are close to the new rectangle into it (the merged rectangle is
+        //  bigger, so the search starts again)
+        int i = 0;
+        while (i < this.count) {
+            if (this.shouldMerge(i, x1, y1, x2, y2)) {
+                x1 = Math.min(x1, this.minX[i]);
+                y1 = Math.min(y1, this.minY[i]);
+                x2 = Math.max(x2, this.maxX[i]);
+                y2 = Math.max(y2, this.maxY[i]);
+                this.removeAt(i);
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+        // If there is no room for another rectangle, merge all of them into one
+        if (this.count == MAX_RECTANGLES) {
+            for (int j = 0; j < this.count; j++) {
+                x1 = Math.min(x1, this.minX[j]);
+                y1 = Math.min(y1, this.minY[j]);
+                x2 = Math.max(x2, this.maxX[j]);
+                y2 = Math.max(y2, this.maxY[j]);
+            }
+            this.count = 0;
+        }
+        this.minX[this.count] = x1;
+        this.minY[this.count] = y1;
+        this.maxX[this.count] = x2;
+        this.maxY[this.count] = y2;
+        this.count++;
+    }
+    /**
+     * Adds the area of a text that is drawn with DrawSurface.drawText() to the region. The exact size of the text
+     *  depends on the font, so the area is bigger than the text: each character is narrower than the size of the font,
+     *  and the text goes below the baseline less than half of it.
+     *
+     * @param x the x value of the start of the text.
+     * @param y the y value of the baseline of the text.
+     * @param text the text.
+     * @param fontSize the size of the font.
+     */
+    public void addText(int x, int y, String text, int fontSize) {
+        this.add(x, y - fontSize, fontSize * text.length(), fontSize + (fontSize / 2));
+    }
+    /**
+     * Adds the rectangles of another region to this region.
+     *
+     * @param other the other region.
+     */
+    public void add(DirtyRegion other) {
+        for (int i = 0; i < other.count; i++) {
+            this.add(other.minX[i], other.minY[i], other.maxX[i] - other.minX[i], other.maxY[i] - other.minY[i]);
+        }
+    }
+    /**
+     * Adds the whole screen to the region.
+     */
+    public void addAll() {
+        this.add(0, 0, this.width, this.height);
+    }
+    /**
+     * Removes all the rectangles from the region.
+     */
+    public void clear() {
+        this.count = 0;
+    }
+    /**
+     * Checks if the region is empty (nothing changed).
+     *
+     * @return true if the region is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+    /**
+     * Returns the number of rectangles in the region.
+     *
+     * @return the number of rectangles.
+     */
+    public int getCount() {
+        return this.count;
+    }
+    /**
+     * Returns the x value of the upper-left point of the rectangle with the given index.
+     *
+     * @param i the index of the rectangle.
+     * @return the x value of the upper-left point of the rectangle.
+     */
+    public int getX(int i) {
+        return this.minX[i];
+    }
+    /**
+     * Returns the y value of the upper-left point of the rectangle with the given index.
+     *
+     * @param i the index of the rectangle.
+     * @return the y value of the upper-left point of the rectangle.
+     */
+    public int getY(int i) {
+        return this.minY[i];
+    }
+    /**
+     * Returns the width of the rectangle with the given index.
+     *
+     * @param i the index of the rectangle.
+     * @return the width of the rectangle.
+     */
+    public int getWidth(int i) {
+        return this.maxX[i] - this.minX[i];
+    }
+    /**
+     * Returns the height of the rectangle with the given index.
+     *
+     * @param i the index of the rectangle.
+     * @return the height of the rectangle.
+     */
+    public int getHeight(int i) {
+        return this.maxY[i] - this.minY[i];
+    }
+    /**
+     * Checks if the rectangle with the given index intersects another rectangle.
+     *
+     * @param i the index of the rectangle.
+     * @param x the x value of the upper-left point of the other rectangle.
+     * @param y the y value of the upper-left point of the other rectangle.
+     * @param w the width of the other rectangle.
+     * @param h the height of the other rectangle.
+     * @return true if the rectangles intersect, false otherwise.
+     */
+    public boolean intersects(int i, int x, int y, int w, int h) {
+        return (x < this.maxX[i]) && (this.minX[i] < x + w) && (y < this.maxY[i]) && (this.minY[i] < y + h);
+    }
+    /**
+     * Checks if the rectangle with the given index intersects the area of a text that is drawn with
+     *  DrawSurface.drawText() (the same area that addText() adds).
+     *
+     * @param i the index of the rectangle.
+     * @param x the x value of the start of the text.
+     * @param y the y value of the baseline of the text.
+     * @param length the number of characters in the text.
+     * @param fontSize the size of the font.
+     * @return true if the rectangle intersects the area of the text, false otherwise.
+     */
+    public boolean intersectsText(int i, int x, int y, int length, int fontSize) {
+        return this.intersects(i, x, y - fontSize, fontSize * length, fontSize + (fontSize / 2));
+    }
+    /**
+     * Returns the number of pixels in the region (the rectangles do not overlap).
+     *
+     * @return the number of pixels in the region.
+     */
+    public long getArea() {
+        long area = 0;
+        for (int i = 0; i < this.count; i++) {
+            area += (long) (this.maxX[i] - this.minX[i]) * (this.maxY[i] - this.minY[i]);
+        }
+        return area;
+    }
+    /**
+     * Checks if the rectangle with the given index should be merged with another rectangle: if they overlap or touch,
+     *  or if the rectangle that bounds them adds only a few pixels.
+     *
+     * @param i the index of the rectangle.
+     * @param x1 the x value of the upper-left point of the other rectangle.
+     * @param y1 the y value of the upper-left point of the other rectangle.
+     * @param x2 the x value of the lower-right point of the other rectangle (exclusive).
+     * @param y2 the y value of the lower-right point of the other rectangle (exclusive).
+     * @return true if the rectangles should be merged, false otherwise.
+     */
+    private boolean shouldMerge(int i, int x1, int y1, int x2, int y2) {
+        if ((x1 <= this.maxX[i]) && (this.minX[i] <= x2) && (y1 <= this.maxY[i]) && (this.minY[i] <= y2)) {
+            return true;
+        }
+        long bounds = (long) (Math.max(x2, this.maxX[i]) - Math.min(x1, this.minX[i]))
+                * (Math.max(y2, this.maxY[i]) - Math.min(y1, this.minY[i]));
+        long areas = ((long) (x2 - x1) * (y2 - y1))
+                + ((long) (this.maxX[i] - this.minX[i]) * (this.maxY[i] - this.minY[i]));
+        return bounds <= areas + MERGE_SLACK;
+    }
+    /**
+     * Removes the rectangle with the given index (the last rectangle takes its place).
+     *
+     * @param i the index of the rectangle.
+     */
+    private void removeAt(int i) {
+        this.count--;
+        this.minX[i] = this.minX[this.count];
+        this.minY[i] = this.minY[this.count];
+        this.maxX[i] = this.maxX[this.count];
+        this.maxY[i] = this.maxY[this.count];
+    }
+}
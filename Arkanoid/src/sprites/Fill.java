@@ -0,0 +1,22 @@
+package sprites;
+
+import biuoop.DrawSurface;
+
+/**
+ * The Fill interface will be used by the fills of blocks (a color or an image), that are parsed once from their
+ *  definitions and then only drawn.
+ *
+ * @author Ayelet Tennenboim
+ */
+public interface Fill {
+    /**
+     * Fills the given rectangle on the given DrawSurface.
+     *
+     * @param surface a surface to draw on it.
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param width the width of the rectangle.
+     * @param height the height of the rectangle.
+     */
+    void drawOn(DrawSurface surface, int x, int y, int width, int height);
+}
@@ -0,0 +1,24 @@
+package sprites;
+
+/**
+ * The FrameSlot interface will be used by surfaces that record a frame to be drawn later (on another thread), in one
+ *  of a few slots that are used in turn. A slot is used again only after the frame that was recorded in it was drawn,
+ *  so a SpriteCollection that retains its frames keeps a retained frame for each slot, and the image of a frame is
+ *  never changed while it is drawn.
+ *
+ * @author Ayelet Tennenboim
+ */
+public interface FrameSlot {
+    /**
+     * Returns the index of the slot that the frame is recorded in.
+     *
+     * @return the index of the slot.
+     */
+    int getSlot();
+    /**
+     * Returns the number of slots that are used in turn.
+     *
+     * @return the number of slots.
+     */
+    int getSlotCount();
+}
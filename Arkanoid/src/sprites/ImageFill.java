@@ -0,0 +1,43 @@
+package sprites;
+
+import biuoop.DrawSurface;
+import java.awt.Image;
+
+/**
+ * ImageFill - a fill of an image, that is drawn at the upper-left point of the rectangle.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class ImageFill implements Fill {
+    // The image (null if it could not be loaded)
+    private Image image;
+
+    /**
+     * Constructor - creates a new ImageFill.
+     *
+     * @param image the image of the fill.
+     */
+    public ImageFill(Image image) {
+        this.image = image;
+    }
+    /**
+     * Returns the image of the fill.
+     *
+     * @return the image of the fill.
+     */
+    public Image getImage() {
+        return this.image;
+    }
+    /**
+     * Draws the image at the upper-left point of the given rectangle.
+     *
+     * @param surface a surface to draw on it.
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param width the width of the rectangle.
+     * @param height the height of the rectangle.
+     */
+    public void drawOn(DrawSurface surface, int x, int y, int width, int height) {
+        surface.drawImage(x, y, this.image);
+    }
+}
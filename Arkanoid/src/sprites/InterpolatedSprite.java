@@ -0,0 +1,20 @@
+package sprites;
+
+import biuoop.DrawSurface;
+
+/**
+ * The InterpolatedSprite interface will be used by sprites that move, and can be drawn between their position in
+ *  the previous tick and their position now - so they move smoothly when there are more frames than ticks.
+ *
+ * @author Ayelet Tennenboim
+ */
+public interface InterpolatedSprite extends Sprite {
+    /**
+     * Draws the sprite to the screen, at the given part of the way from its position in the previous tick to its
+     *  position now.
+     *
+     * @param d a surface to draw on it.
+     * @param alpha the part of the way (0 for the previous position, 1 for the position now).
+     */
+    void drawOn(DrawSurface d, double alpha);
+}
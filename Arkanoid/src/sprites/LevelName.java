@@ -9,8 +9,16 @@ import java.awt.Color;
  *
  * @author Ayelet Tennenboim
  */
-public class LevelName implements Sprite {
+public class LevelName implements TrackedSprite {
+    // X and Y values of the start of the text
+    private static final int TEXT_X = 465;
+    private static final int TEXT_Y = 23;
+    // The size of the text
+    private static final int FONT_SIZE = 20;
+    // The name of the level
     private String levelName;
+    // Indication whether the level name was drawn
+    private boolean drawn;
 
     /**
      * Constructor - creates a new Background.
@@ -26,16 +34,34 @@ public class LevelName implements Sprite {
      * @param d a surface to draw on it.
      */
     public void drawOn(DrawSurface d) {
-        // X and Y values for the top left corner
-        int xUpperLeft = 465;
-        int yUpperLeft = 23;
-        // The size of the text
-        int fontSize = 20;
         // Level name string
         String levelNameS = "Level Name: " + this.levelName;
         // Draw the level name on the screen
         d.setColor(Color.WHITE);
-        d.drawText(xUpperLeft, yUpperLeft, levelNameS, fontSize);
+        d.drawText(TEXT_X, TEXT_Y, levelNameS, FONT_SIZE);
+    }
+    /**
+     * Adds the area of the level name to the given region, if it was not drawn yet (it never changes).
+     *
+     * @param region the areas that changed.
+     * @param alpha the part of the way that the moving sprites are drawn at (the level name does not move).
+     */
+    public void addDirtyAreas(DirtyRegion region, double alpha) {
+        if (!this.drawn) {
+            region.addText(TEXT_X, TEXT_Y, "Level Name: " + this.levelName, FONT_SIZE);
+            this.drawn = true;
+        }
+    }
+    /**
+     * Checks if the area of the level name intersects a rectangle of the given region.
+     *
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     * @return true if the level name is drawn in the rectangle, false otherwise.
+     */
+    public boolean isDrawnIn(DirtyRegion region, int i) {
+        return region.intersectsText(i, TEXT_X, TEXT_Y, "Level Name: ".length() + this.levelName.length(),
+                FONT_SIZE);
     }
     /**
      * Notifies the sprite that time has passed.
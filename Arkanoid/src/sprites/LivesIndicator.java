@@ -10,9 +10,17 @@ import java.awt.Color;
  *
  * @author Ayelet Tennenboim
  */
-public class LivesIndicator implements Sprite {
+public class LivesIndicator implements TrackedSprite {
+    // X and Y values of the start of the text
+    private static final int TEXT_X = 220;
+    private static final int TEXT_Y = 23;
+    // The size of the text
+    private static final int FONT_SIZE = 20;
     // A reference to the lives counter
     private Counter lives;
+    // The number of lives that was last drawn (-1 if it was not drawn yet), and the length of its text
+    private int drawnLives;
+    private int drawnLength;
 
     /**
      * Constructor - creates a new LivesIndicator.
@@ -21,6 +29,7 @@ public class LivesIndicator implements Sprite {
      */
     public LivesIndicator(Counter lives) {
         this.lives = lives;
+        this.drawnLives = -1;
     }
     /**
      * Draws the sprite to the screen.
@@ -28,16 +37,40 @@ public class LivesIndicator implements Sprite {
      * @param surface a surface to draw on it.
      */
     public void drawOn(DrawSurface surface) {
-        // X and Y values for the top left corner
-        int xUpperLeft = 220;
-        int yUpperLeft = 23;
-        // The size of the text
-        int fontSize = 20;
         // Lives string
         String livesString = "Lives: " + this.lives.getValue();
         // Draw the number of lives on the rectangle
         surface.setColor(Color.WHITE);
-        surface.drawText(xUpperLeft, yUpperLeft, livesString, fontSize);
+        surface.drawText(TEXT_X, TEXT_Y, livesString, FONT_SIZE);
+    }
+    /**
+     * Adds the area of the text to the given region, if the number of lives changed since it was last drawn.
+     *
+     * @param region the areas that changed.
+     * @param alpha the part of the way that the moving sprites are drawn at (the indicator does not move).
+     */
+    public void addDirtyAreas(DirtyRegion region, double alpha) {
+        int value = this.lives.getValue();
+        if (value == this.drawnLives) {
+            return;
+        }
+        if (this.drawnLives >= 0) {
+            region.addText(TEXT_X, TEXT_Y, "Lives: " + this.drawnLives, FONT_SIZE);
+        }
+        String livesString = "Lives: " + value;
+        region.addText(TEXT_X, TEXT_Y, livesString, FONT_SIZE);
+        this.drawnLives = value;
+        this.drawnLength = livesString.length();
+    }
+    /**
+     * Checks if the area of the text that was last drawn intersects a rectangle of the given region.
+     *
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     * @return true if the text is drawn in the rectangle, false otherwise.
+     */
+    public boolean isDrawnIn(DirtyRegion region, int i) {
+        return region.intersectsText(i, TEXT_X, TEXT_Y, this.drawnLength, FONT_SIZE);
     }
     /**
      * Notifies the sprite that time has passed.
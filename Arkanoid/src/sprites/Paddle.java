@@ -5,7 +5,7 @@ import geometricshapes.Point;
 import sprites.ball.Ball;
 import sprites.ball.Velocity;
 import geometricshapes.Rectangle;
-import collisiondetection.Collidable;
+import collisiondetection.MovingCollidable;
 import biuoop.DrawSurface;
 import biuoop.KeyboardSensor;
 import java.awt.Color;
@@ -16,7 +16,7 @@ import java.awt.Color;
  *
  * @author Ayelet Tennenboim
  */
-public class Paddle implements Sprite, Collidable {
+public class Paddle implements InterpolatedSprite, TrackedSprite, MovingCollidable {
     // A keyboard to read the key presses
     private biuoop.KeyboardSensor keyboard;
     // The location and size of the paddle (specified using a Rectangle)
@@ -25,6 +25,15 @@ public class Paddle implements Sprite, Collidable {
     private double dx;
     // Color
     private Color color;
+    // The change in position of the paddle in its last move
+    private Velocity velocity;
+    // The x value of the upper-left point of the paddle before its last move
+    private double previousX;
+    // The length of a step, in base ticks (the change in position in a step is dx times it)
+    private double stepTime;
+    // The x value that the paddle was last drawn at, and an indication whether it was drawn
+    private int drawnX;
+    private boolean drawn;
 
     /**
      * Constructor - creates a new paddle.
@@ -39,15 +48,28 @@ public class Paddle implements Sprite, Collidable {
         this.dx = dx;
         this.color = color;
         this.keyboard = keyboard;
+        this.velocity = new Velocity(0, 0);
+        this.stepTime = 1;
+        this.previousX = rec.getUpperLeft().getX();
+    }
+    /**
+     * Sets the length of a step, in base ticks of 1/60 seconds. The paddle moves dx times the length of the step in
+     *  every step.
+     *
+     * @param time the length of a step.
+     */
+    public void setStepTime(double time) {
+        this.stepTime = time;
     }
     /**
      * Moves the paddle to the left.
      */
     public void moveLeft() {
+        double step = this.dx * this.stepTime;
         // If after the next step the paddle will still be all inside the screen
-        if (this.rec.getUpperLeft().getX() >= 20 + dx) {
+        if (this.rec.getUpperLeft().getX() >= 20 + step) {
             // Move one step to the left
-            this.rec.setUpperLeft(new Point(this.rec.getUpperLeft().getX() - this.dx,
+            this.rec.setUpperLeft(new Point(this.rec.getUpperLeft().getX() - step,
                     this.rec.getUpperLeft().getY()));
         }
     }
@@ -55,10 +77,11 @@ public class Paddle implements Sprite, Collidable {
      * Moves the paddle to the right.
      */
     public void moveRight() {
+        double step = this.dx * this.stepTime;
         // If after the next step the paddle will still be all inside the screen
-        if (this.rec.getUpperLeft().getX() + this.rec.getWidth() <= 780 - dx) {
+        if (this.rec.getUpperLeft().getX() + this.rec.getWidth() <= 780 - step) {
             // Move one step to the right
-            this.rec.setUpperLeft(new Point(this.rec.getUpperLeft().getX() + this.dx,
+            this.rec.setUpperLeft(new Point(this.rec.getUpperLeft().getX() + step,
                     this.rec.getUpperLeft().getY()));
         }
     }
@@ -66,6 +89,8 @@ public class Paddle implements Sprite, Collidable {
      * Checks if the "left" or "right" keys are pressed, and if so moves the paddle accordingly.
      */
     public void timePassed() {
+        double lastX = this.rec.getUpperLeft().getX();
+        this.previousX = lastX;
         // If the left key is pressed
         if (this.keyboard.isPressed(KeyboardSensor.LEFT_KEY)) {
             // Move to the left
@@ -75,6 +100,8 @@ public class Paddle implements Sprite, Collidable {
             // Move to the right
             this.moveRight();
         }
+        // Keep the change in position, for the balls that are swept against the paddle
+        this.velocity.setDx(this.rec.getUpperLeft().getX() - lastX);
     }
     /**
      * Draws the paddle on the given DrawSurface.
@@ -82,13 +109,74 @@ public class Paddle implements Sprite, Collidable {
      * @param d a surface to draw on it.
      */
     public void drawOn(DrawSurface d) {
+        this.drawOn(d, 1);
+    }
+    /**
+     * Draws the paddle on the given DrawSurface, at the given part of the way from its position before its last move
+     *  to its position now.
+     *
+     * @param d a surface to draw on it.
+     * @param alpha the part of the way (0 for the position before the last move, 1 for the position now).
+     */
+    public void drawOn(DrawSurface d, double alpha) {
+        double x = this.xAt(alpha);
         d.setColor(this.color);
-        d.fillRectangle((int) this.rec.getUpperLeft().getX(), (int) this.rec.getUpperLeft().getY(),
+        d.fillRectangle((int) x, (int) this.rec.getUpperLeft().getY(),
                 (int) this.rec.getWidth(), (int) this.rec.getHeight());
         d.setColor(Color.BLACK);
-        d.drawRectangle((int) this.rec.getUpperLeft().getX(), (int) this.rec.getUpperLeft().getY(),
+        d.drawRectangle((int) x, (int) this.rec.getUpperLeft().getY(),
                 (int) this.rec.getWidth(), (int) this.rec.getHeight());
     }
+    /**
+     * Adds the area that the paddle was last drawn at and the area it is going to be drawn at to the given region, if
+     *  the paddle moved since it was last drawn.
+     *
+     * @param region the areas that changed.
+     * @param alpha the part of the way that the paddle is drawn at (0 for the previous position, 1 for the position
+     *  now).
+     */
+    public void addDirtyAreas(DirtyRegion region, double alpha) {
+        int x = (int) this.xAt(alpha);
+        if (this.drawn && (x == this.drawnX)) {
+            return;
+        }
+        int y = (int) this.rec.getUpperLeft().getY();
+        // The stroke is drawn one pixel to the right and below the rectangle
+        int width = (int) this.rec.getWidth() + 1;
+        int height = (int) this.rec.getHeight() + 1;
+        if (this.drawn) {
+            region.add(this.drawnX, y, width, height);
+        }
+        region.add(x, y, width, height);
+        this.drawnX = x;
+        this.drawn = true;
+    }
+    /**
+     * Checks if the area that the paddle was last drawn at (with its stroke) intersects a rectangle of the given
+     *  region.
+     *
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     * @return true if the paddle is drawn in the rectangle, false otherwise.
+     */
+    public boolean isDrawnIn(DirtyRegion region, int i) {
+        return region.intersects(i, this.drawnX, (int) this.rec.getUpperLeft().getY(), (int) this.rec.getWidth() + 1,
+                (int) this.rec.getHeight() + 1);
+    }
+    /**
+     * Returns the x value of the upper-left point of the paddle at the given part of the way from its position
+     *  before its last move to its position now.
+     *
+     * @param alpha the part of the way (0 for the previous position, 1 for the position now).
+     * @return the x value of the upper-left point of the paddle.
+     */
+    private double xAt(double alpha) {
+        double x = this.rec.getUpperLeft().getX();
+        if (alpha < 1) {
+            x = this.previousX + ((x - this.previousX) * alpha);
+        }
+        return x;
+    }
     /**
      * Returns the "collision shape" of the object.
      *
@@ -97,6 +185,14 @@ public class Paddle implements Sprite, Collidable {
     public Rectangle getCollisionRectangle() {
         return this.rec;
     }
+    /**
+     * Returns the change in position of the paddle in its last move.
+     *
+     * @return the change in position of the paddle in its last move.
+     */
+    public Velocity getVelocity() {
+        return this.velocity;
+    }
     /**
      * Returns a new velocity expected after the hit.
      * <p>
@@ -12,13 +12,21 @@ import java.awt.Color;
  *
  * @author Ayelet Tennenboim
  */
-public class ScoreIndicator implements Sprite {
+public class ScoreIndicator implements TrackedSprite {
+    // X and Y values of the start of the text
+    private static final int TEXT_X = 80;
+    private static final int TEXT_Y = 23;
+    // The size of the text
+    private static final int FONT_SIZE = 20;
     // The location and size of the ScoreIndicator (specified using a Rectangle)
     private Rectangle rec;
     // Color
     private Color color;
     // A reference to the scores counter
     private Counter score;
+    // The score that was last drawn, and an indication whether the indicator was drawn
+    private int drawnScore;
+    private boolean drawn;
 
     /**
      * Constructor - creates a new ScoreIndicator.
@@ -29,6 +37,7 @@ public class ScoreIndicator implements Sprite {
         this.rec = new Rectangle(new Point(0, 0), 800, 30);
         this.color = new Color(119, 119, 120, 255);;
         this.score = score;
+        this.drawn = false;
     }
     /**
      * Draws the sprite to the screen.
@@ -49,16 +58,41 @@ public class ScoreIndicator implements Sprite {
      * @param surface a surface to draw on it.
      */
     private void drawScore(DrawSurface surface) {
-        // X and Y values for the top left corner
-        int xUpperLeft = 80;
-        int yUpperLeft = 23;
-        // The size of the text
-        int fontSize = 20;
         // Score string
         String scoreString = "Score: " + this.score.getValue();
         // Draw the score on the rectangle
         surface.setColor(Color.WHITE);
-        surface.drawText(xUpperLeft, yUpperLeft, scoreString, fontSize);
+        surface.drawText(TEXT_X, TEXT_Y, scoreString, FONT_SIZE);
+    }
+    /**
+     * Adds the area of the indicator to the given region if it was not drawn yet, or the area of the text if the
+     *  score changed since it was last drawn.
+     *
+     * @param region the areas that changed.
+     * @param alpha the part of the way that the moving sprites are drawn at (the indicator does not move).
+     */
+    public void addDirtyAreas(DirtyRegion region, double alpha) {
+        int value = this.score.getValue();
+        if (!this.drawn) {
+            region.add((int) this.rec.getUpperLeft().getX(), (int) this.rec.getUpperLeft().getY(),
+                    (int) this.rec.getWidth(), (int) this.rec.getHeight());
+        } else if (value != this.drawnScore) {
+            region.addText(TEXT_X, TEXT_Y, "Score: " + this.drawnScore, FONT_SIZE);
+            region.addText(TEXT_X, TEXT_Y, "Score: " + value, FONT_SIZE);
+        }
+        this.drawnScore = value;
+        this.drawn = true;
+    }
+    /**
+     * Checks if the area of the indicator intersects a rectangle of the given region.
+     *
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     * @return true if the indicator is drawn in the rectangle, false otherwise.
+     */
+    public boolean isDrawnIn(DirtyRegion region, int i) {
+        return region.intersects(i, (int) this.rec.getUpperLeft().getX(), (int) this.rec.getUpperLeft().getY(),
+                (int) this.rec.getWidth(), (int) this.rec.getHeight());
     }
     /**
      * Notifies the sprite that time has passed.
@@ -1,18 +1,45 @@
 package sprites;
 
 import biuoop.DrawSurface;
+import images.ImageDrawSurface;
+import images.ImagePreparer;
+import java.awt.Color;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * SpriteCollection - a collection of sprites. It will first draw all of the sprites, then notify all of them that
  *  time has passed.
  *
+ * A collection can keep its frames drawn in off-screen images (retained frames). Then every frame asks the sprites
+ *  which areas of the screen they changed (a sprite that is not a TrackedSprite changes all of the screen), draws
+ *  the sprites again only in these areas, and draws the frame on the surface with a single image. Each frame is
+ *  drawn again in the areas that changed since it was last used. The animation runner waits until the window drew a
+ *  frame before it draws the next one, so one frame is kept for the window. A surface that records the frame to be
+ *  drawn later (a FrameSlot) has a frame of its own for each slot, that is used again only when the slot is used
+ *  again, after the frame was drawn.
+ *
  * @author Ayelet Tennenboim
  */
 public class SpriteCollection {
+    // Number of retained frames that are drawn directly on the window (the frames of the slots come after them)
+    private static final int WINDOW_FRAMES = 1;
     // An ArrayList of sprites
     private List<Sprite> sprites;
+    // The size of the retained frames
+    private int width;
+    private int height;
+    // The retained frames (null if the sprites are drawn directly on the surface)
+    private BufferedImage[] frames;
+    // The areas that changed since each retained frame was last used
+    private DirtyRegion[] dirtyRegions;
+    // The areas that changed in the current frame
+    private DirtyRegion changed;
+    // Number of pixels that were drawn again in the last frame
+    private long lastRedrawnArea;
 
     /**
      * Constructor - creates a new sprites.Sprite collection.
@@ -20,6 +47,42 @@ public class SpriteCollection {
     public SpriteCollection() {
         this.sprites = new ArrayList<Sprite>();
     }
+    /**
+     * Makes the collection keep its frames drawn in off-screen images of the given size, and draw again only the
+     *  areas that changed.
+     *
+     * @param width the width of the frames.
+     * @param height the height of the frames.
+     */
+    public void retainFrames(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.frames = new BufferedImage[WINDOW_FRAMES];
+        this.dirtyRegions = new DirtyRegion[WINDOW_FRAMES];
+        for (int i = 0; i < WINDOW_FRAMES; i++) {
+            this.dirtyRegions[i] = new DirtyRegion(width, height);
+        }
+        this.changed = new DirtyRegion(width, height);
+    }
+    /**
+     * Marks the whole screen as changed, so the next retained frames are drawn again completely.
+     */
+    public void invalidateAll() {
+        if (this.frames != null) {
+            for (DirtyRegion region : this.dirtyRegions) {
+                region.addAll();
+            }
+        }
+    }
+    /**
+     * Returns the number of pixels that were drawn again in the last frame (all of the screen if the frames are not
+     *  retained).
+     *
+     * @return the number of pixels that were drawn again in the last frame.
+     */
+    public long getLastRedrawnArea() {
+        return this.lastRedrawnArea;
+    }
     /**
      * Adds the given sprite to the collection.
      *
@@ -27,13 +90,18 @@ public class SpriteCollection {
      */
     public void addSprite(Sprite s) {
         this.sprites.add(s);
+        this.invalidateAll();
     }
     /**
      * Removes the given sprite from the collection.
      *
      * @param s the given sprite.
      */
-    public void removeSprite(Sprite s) { this.sprites.remove(s); }
+    public void removeSprite(Sprite s) {
+        if (this.sprites.remove(s)) {
+            this.invalidateAll();
+        }
+    }
     /**
      * Calls timePassed() on all sprites.
      */
@@ -51,6 +119,10 @@ public class SpriteCollection {
      * @param d a surface to draw on it.
      */
     public void drawAllOn(DrawSurface d) {
+        if (this.frames != null) {
+            this.drawRetained(d, 1);
+            return;
+        }
         // Make a copy of the sprites before iterating over them
         List<Sprite> spritesList = new ArrayList<Sprite>(this.sprites);
         // Call drawOn(d) on all sprites
@@ -58,4 +130,101 @@ public class SpriteCollection {
             s.drawOn(d);
         }
     }
+    /**
+     * Calls drawOn(d) on all sprites, and draws the moving sprites at the given part of the way from their position
+     *  in the previous tick to their position now.
+     *
+     * @param d a surface to draw on it.
+     * @param alpha the part of the way (0 for the previous position, 1 for the position now).
+     */
+    public void drawAllOn(DrawSurface d, double alpha) {
+        if (this.frames != null) {
+            this.drawRetained(d, alpha);
+            return;
+        }
+        // Make a copy of the sprites before iterating over them
+        List<Sprite> spritesList = new ArrayList<Sprite>(this.sprites);
+        for (Sprite s : spritesList) {
+            if (s instanceof InterpolatedSprite) {
+                ((InterpolatedSprite) s).drawOn(d, alpha);
+            } else {
+                s.drawOn(d);
+            }
+        }
+        this.lastRedrawnArea = (long) d.getWidth() * d.getHeight();
+    }
+    /**
+     * Draws the areas that changed on the next retained frame, and draws the frame on the given DrawSurface.
+     *
+     * @param d a surface to draw on it.
+     * @param alpha the part of the way that the moving sprites are drawn at (1 for their position now).
+     */
+    private void drawRetained(DrawSurface d, double alpha) {
+        // Make a copy of the sprites before iterating over them
+        List<Sprite> spritesList = new ArrayList<Sprite>(this.sprites);
+        // Collect the areas that the sprites changed since the previous frame
+        this.changed.clear();
+        for (Sprite s : spritesList) {
+            if (s instanceof TrackedSprite) {
+                ((TrackedSprite) s).addDirtyAreas(this.changed, alpha);
+            } else {
+                this.changed.addAll();
+            }
+        }
+        for (DirtyRegion region : this.dirtyRegions) {
+            region.add(this.changed);
+        }
+        // Draw the areas that changed since the frame of the slot (or the frame of the window) was last used
+        int i = 0;
+        if (d instanceof FrameSlot) {
+            FrameSlot slot = (FrameSlot) d;
+            this.ensureFrames(WINDOW_FRAMES + slot.getSlotCount());
+            i = WINDOW_FRAMES + slot.getSlot();
+        }
+        DirtyRegion region = this.dirtyRegions[i];
+        if (this.frames[i] == null) {
+            this.frames[i] = ImagePreparer.createCompatibleImage(this.width, this.height, Transparency.OPAQUE);
+            region.addAll();
+        }
+        this.lastRedrawnArea = region.getArea();
+        if (!region.isEmpty()) {
+            ImageDrawSurface surface = new ImageDrawSurface(this.frames[i]);
+            for (int r = 0; r < region.getCount(); r++) {
+                surface.setClip(region.getX(r), region.getY(r), region.getWidth(r), region.getHeight(r));
+                surface.setColor(Color.BLACK);
+                surface.fillRectangle(region.getX(r), region.getY(r), region.getWidth(r), region.getHeight(r));
+                for (Sprite s : spritesList) {
+                    // Draw only the sprites that are in the rectangle (a sprite that is not tracked may be anywhere)
+                    if ((s instanceof TrackedSprite) && !((TrackedSprite) s).isDrawnIn(region, r)) {
+                        continue;
+                    }
+                    if (s instanceof InterpolatedSprite) {
+                        ((InterpolatedSprite) s).drawOn(surface, alpha);
+                    } else {
+                        s.drawOn(surface);
+                    }
+                }
+            }
+            surface.dispose();
+            region.clear();
+        }
+        d.drawImage(0, 0, this.frames[i]);
+    }
+    /**
+     * Makes room for the given number of retained frames (the new frames are drawn completely when they are first
+     *  used).
+     *
+     * @param count the number of retained frames.
+     */
+    private void ensureFrames(int count) {
+        if (this.frames.length >= count) {
+            return;
+        }
+        int old = this.frames.length;
+        this.frames = Arrays.copyOf(this.frames, count);
+        this.dirtyRegions = Arrays.copyOf(this.dirtyRegions, count);
+        for (int i = old; i < count; i++) {
+            this.dirtyRegions[i] = new DirtyRegion(this.width, this.height);
+        }
+    }
 }
\ No newline at end of file
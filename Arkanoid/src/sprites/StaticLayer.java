@@ -0,0 +1,222 @@
+package sprites;
+
+import biuoop.DrawSurface;
+import game.GameLevel;
+import hitting.HitListener;
+import hitting.HitNotifier;
+import geometricshapes.Rectangle;
+import images.ImageDrawSurface;
+import images.ImagePreparer;
+import sprites.ball.Ball;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StaticLayer - the static sprites of a level (the background and the blocks), kept drawn in an off-screen image, so
+ *  every frame draws them with a single image.
+ *
+ * The layer listens to the hits of its sprites: when a block is removed, or when it was hit and its hit-points
+ *  changed, only its area is drawn again (the areas that changed since the last frame are kept in a dirty region).
+ *  The listeners are notified before the hit-points of the block change, so the last block that was hit is only
+ *  checked on the next hit or before the next frame.
+ *
+ * The image is drawn into the retained frames of the level (see SpriteCollection), on the thread that changes the
+ *  layer, and never directly on the screen. So the changes are drawn on the image itself, and only in the areas
+ *  that changed.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class StaticLayer implements TrackedSprite, HitListener {
+    // The size of the layer
+    private int width;
+    private int height;
+    // The static sprites, in the order they are drawn
+    private List<Sprite> sprites;
+    // The image of the layer (null until it is drawn for the first time), and the surface that draws on it
+    private BufferedImage image;
+    private ImageDrawSurface surface;
+    // The areas that changed since the image was drawn
+    private DirtyRegion dirty;
+    // The last block that was hit, if it was not checked yet (null otherwise)
+    private Block hitBlock;
+    // Number of times the layer was drawn again (all of it or a part of it)
+    private long redraws;
+
+    /**
+     * Constructor - creates a new empty StaticLayer.
+     *
+     * @param width the width of the layer.
+     * @param height the height of the layer.
+     */
+    public StaticLayer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.sprites = new ArrayList<Sprite>();
+        this.dirty = new DirtyRegion(width, height);
+    }
+    /**
+     * Adds a static sprite to the layer, above the sprites that were added before it.
+     *
+     * @param s the sprite.
+     */
+    public void addSprite(StaticSprite s) {
+        this.sprites.add(s);
+        if (s instanceof HitNotifier) {
+            ((HitNotifier) s).addHitListener(this);
+        }
+        this.invalidate(s);
+    }
+    /**
+     * Removes a static sprite from the layer.
+     *
+     * @param s the sprite.
+     */
+    public void removeSprite(StaticSprite s) {
+        if (this.sprites.remove(s)) {
+            if (s instanceof HitNotifier) {
+                ((HitNotifier) s).removeHitListener(this);
+            }
+            this.invalidate(s);
+        }
+    }
+    /**
+     * Keeps a block that was hit, so its area is marked as changed later if its hit-points changed.
+     *
+     * @param beingHit the block that was hit.
+     * @param hitter the ball that hit the block.
+     */
+    public void hitEvent(Block beingHit, Ball hitter) {
+        this.checkHitBlock();
+        this.hitBlock = beingHit;
+    }
+    /**
+     * Marks a rectangle of the layer as changed, so it is drawn again in the next frame.
+     *
+     * @param x the x value of the upper-left point of the rectangle.
+     * @param y the y value of the upper-left point of the rectangle.
+     * @param w the width of the rectangle.
+     * @param h the height of the rectangle.
+     */
+    public void invalidate(int x, int y, int w, int h) {
+        this.dirty.add(x, y, w, h);
+    }
+    /**
+     * Marks the whole layer as changed.
+     */
+    public void invalidateAll() {
+        this.dirty.addAll();
+    }
+    /**
+     * Returns the number of times the layer was drawn again (all of it or a part of it).
+     *
+     * @return the number of times the layer was drawn again.
+     */
+    public long getRedrawCount() {
+        return this.redraws;
+    }
+    /**
+     * Adds the areas of the layer that changed since it was last drawn to the given region (all of the layer if it was
+     *  not drawn yet).
+     *
+     * @param region the areas that changed.
+     * @param alpha the part of the way that the moving sprites are drawn at (the layer does not move).
+     */
+    public void addDirtyAreas(DirtyRegion region, double alpha) {
+        this.checkHitBlock();
+        if (this.image == null) {
+            region.addAll();
+        } else {
+            region.add(this.dirty);
+        }
+    }
+    /**
+     * Checks if the layer intersects a rectangle of the given region (it covers all of the screen).
+     *
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     * @return true, since the layer is drawn in every rectangle.
+     */
+    public boolean isDrawnIn(DirtyRegion region, int i) {
+        return true;
+    }
+    /**
+     * Draws the layer on the given DrawSurface: draws the areas that changed into the image of the layer, and then
+     *  draws the image.
+     *
+     * @param d a surface to draw on it.
+     */
+    public void drawOn(DrawSurface d) {
+        this.update();
+        d.drawImage(0, 0, this.image);
+    }
+    /**
+     * Notifies the sprite that time has passed.
+     */
+    public void timePassed() {
+        // Do nothing
+    }
+    /**
+     * Adds this layer to the game.
+     *
+     * @param g the game.
+     */
+    public void addToGame(GameLevel g) {
+        g.addSprite(this);
+    }
+    /**
+     * Draws the areas that changed on the image of the layer (all of it, the first time).
+     */
+    private void update() {
+        this.checkHitBlock();
+        if ((this.image != null) && this.dirty.isEmpty()) {
+            return;
+        }
+        if (this.image == null) {
+            this.image = ImagePreparer.createCompatibleImage(this.width, this.height, Transparency.OPAQUE);
+            this.surface = new ImageDrawSurface(this.image);
+            this.invalidateAll();
+        }
+        for (int i = 0; i < this.dirty.getCount(); i++) {
+            this.surface.setClip(this.dirty.getX(i), this.dirty.getY(i), this.dirty.getWidth(i),
+                    this.dirty.getHeight(i));
+            for (Sprite s : this.sprites) {
+                // Draw only the blocks and the tiles that are in the rectangle (the background is in every rectangle)
+                if (s instanceof TileMap) {
+                    ((TileMap) s).drawIn(this.surface, this.dirty, i);
+                } else if (!(s instanceof TrackedSprite) || ((TrackedSprite) s).isDrawnIn(this.dirty, i)) {
+                    s.drawOn(this.surface);
+                }
+            }
+        }
+        this.redraws++;
+        this.dirty.clear();
+    }
+    /**
+     * Marks the area of the last block that was hit as changed, if its hit-points changed.
+     */
+    private void checkHitBlock() {
+        if (this.hitBlock != null) {
+            this.hitBlock.addDirtyAreas(this.dirty, 1);
+            this.hitBlock = null;
+        }
+    }
+    /**
+     * Marks a sprite's area as changed: the rectangle of a block (with its stroke), or the whole layer for any other
+     *  sprite.
+     *
+     * @param s the sprite.
+     */
+    private void invalidate(Sprite s) {
+        if (s instanceof Block) {
+            Rectangle rec = ((Block) s).getCollisionRectangle();
+            int x = (int) rec.getUpperLeft().getX();
+            int y = (int) rec.getUpperLeft().getY();
+            // The stroke is drawn one pixel to the right and below the rectangle
+            this.invalidate(x, y, (int) rec.getWidth() + 1, (int) rec.getHeight() + 1);
+        } else {
+            this.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package sprites;
+
+/**
+ * The StaticSprite interface will be used by sprites that look the same in every frame (like the background and the
+ *  blocks), so they can be drawn once into a StaticLayer. A static sprite changes only when it is hit - then it
+ *  notifies its hit listeners - or when it is removed from the game.
+ *
+ * @author Ayelet Tennenboim
+ */
+public interface StaticSprite extends Sprite {
+}
@@ -0,0 +1,65 @@
+package sprites;
+
+import game.GameLevel;
+import geometricshapes.Point;
+import geometricshapes.Rectangle;
+import sprites.ball.Ball;
+import sprites.ball.Velocity;
+import java.awt.Color;
+
+/**
+ * TileBlock - the block of a tile in a tile map. It is made when the tile is hit, so the hit listeners get a block
+ *  as usual, and it keeps the tile map up to date: its number of hit-points, and its removal from the game.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class TileBlock extends Block {
+    // The tile map of the block, and the cell of its tile
+    private TileMap map;
+    private int cell;
+
+    /**
+     * Constructor - creates the block of a tile.
+     *
+     * @param map the tile map of the block.
+     * @param cell the cell of the tile.
+     * @param rec the rectangle that defines the block.
+     * @param fills the fills of the block by the number of hit-points.
+     * @param strokeColor the stroke color.
+     * @param hitPoints number of hits that left to reach 0.
+     */
+    public TileBlock(TileMap map, int cell, Rectangle rec, BlockFills fills, Color strokeColor, int hitPoints) {
+        super(rec, fills, strokeColor, hitPoints);
+        this.map = map;
+        this.cell = cell;
+    }
+    /**
+     * Returns a new velocity expected after the hit, and updates the number of hit-points of the tile.
+     *
+     * @param hitter the ball that's doing the hitting.
+     * @param collisionPoint the point we collided with the object.
+     * @param currentVelocity the velocity before the hit.
+     * @return the new velocity expected after the hit.
+     */
+    public Velocity hit(Ball hitter, Point collisionPoint, Velocity currentVelocity) {
+        Velocity newVelocity = super.hit(hitter, collisionPoint, currentVelocity);
+        this.map.setHitPoints(this.cell, this.getHitPoints());
+        return newVelocity;
+    }
+    /**
+     * Tiles are added to the game with their tile map.
+     *
+     * @param g the game.
+     */
+    public void addToGame(GameLevel g) {
+        // Do nothing
+    }
+    /**
+     * Removes the tile of this block from the game.
+     *
+     * @param game the game.
+     */
+    public void removeFromGame(GameLevel game) {
+        this.map.removeTile(this.cell);
+    }
+}
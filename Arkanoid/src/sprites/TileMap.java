@@ -0,0 +1,490 @@
+package sprites;
+
+import biuoop.DrawSurface;
+import collisiondetection.Collidable;
+import collisiondetection.NearestHit;
+import collisiondetection.TileCollidables;
+import game.GameLevel;
+import geometricshapes.Point;
+import geometricshapes.Rectangle;
+import hitting.HitListener;
+import hitting.HitNotifier;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TileMap - the blocks of a grid-aligned level, kept as tiles: every cell of the grid has a block type and a number
+ *  of hit-points (a byte each), and a bit that tells whether its block is still in the game. So a block takes a few
+ *  bytes instead of a Block object.
+ *
+ * The tiles near a trajectory are found by walking the cells it passes through (the Amanatides-Woo grid traversal),
+ *  so the cost of a query depends on the length of the trajectory and not on the number of blocks. A Block is made
+ *  for a tile only when it is hit (a TileBlock), so the hit listeners get a block as usual.
+ *
+ * @author Ayelet Tennenboim
+ */
+public class TileMap implements StaticSprite, TileCollidables, HitNotifier {
+    // Maximum number of block types, and of hit-points of a block
+    private static final int MAX_TYPES = 127;
+    private static final int MAX_HIT_POINTS = 127;
+    // Rectangles are inflated by this margin, so points on a cell border are found from both sides of it
+    private static final double EPSILON = 0.000001;
+    // The upper-left point of the grid, and the size of a cell
+    private double originX;
+    private double originY;
+    private double cellWidth;
+    private double rowHeight;
+    // Number of columns and rows in the grid
+    private int columns;
+    private int rows;
+    // The block type of each cell (0 for an empty cell) and its number of hit-points, row by row
+    private byte[] types;
+    private byte[] hitPoints;
+    // A bit for each cell that tells whether its block is still in the game
+    private long[] alive;
+    // Number of blocks that are still in the game
+    private int remaining;
+    // The block types: height, fills by hit-points, stroke color and hit-points of a new block
+    private List<Double> typeHeights;
+    private List<BlockFills> typeFills;
+    private List<Color> typeStrokes;
+    private List<Integer> typeHitPoints;
+    // A block of each type and number of hit-points, that is moved to a tile to draw it (made when it is needed)
+    private Block[] prototypes;
+    // The blocks of the tiles that were hit, by cell
+    private Map<Integer, TileBlock> blocks;
+    // A list of listeners to notify them about a hit event
+    private List<HitListener> hitListeners;
+
+    /**
+     * Constructor - creates a new empty tile map.
+     *
+     * @param originX the x value of the upper-left point of the grid.
+     * @param originY the y value of the upper-left point of the grid.
+     * @param cellWidth the width of a cell (the width of all the blocks).
+     * @param rowHeight the height of a row.
+     * @param columns number of columns in the grid.
+     * @param rows number of rows in the grid.
+     */
+    public TileMap(double originX, double originY, double cellWidth, double rowHeight, int columns, int rows) {
+        this.originX = originX;
+        this.originY = originY;
+        this.cellWidth = cellWidth;
+        this.rowHeight = rowHeight;
+        this.columns = columns;
+        this.rows = rows;
+        this.types = new byte[columns * rows];
+        this.hitPoints = new byte[columns * rows];
+        this.alive = new long[((columns * rows) + 63) / 64];
+        this.remaining = 0;
+        this.typeHeights = new ArrayList<Double>();
+        this.typeFills = new ArrayList<BlockFills>();
+        this.typeStrokes = new ArrayList<Color>();
+        this.typeHitPoints = new ArrayList<Integer>();
+        this.prototypes = new Block[(MAX_TYPES + 1) * (MAX_HIT_POINTS + 1)];
+        this.blocks = new HashMap<Integer, TileBlock>();
+        this.hitListeners = new ArrayList<HitListener>();
+    }
+    /**
+     * Checks whether a block type can be kept in a tile map.
+     *
+     * @param height the height of the block.
+     * @param rowHeight the height of a row.
+     * @param blockHitPoints the number of hit-points of a new block.
+     * @return true if the block type can be kept in a tile map, false otherwise.
+     */
+    public static boolean fits(double height, double rowHeight, int blockHitPoints) {
+        return (height <= rowHeight) && (blockHitPoints <= MAX_HIT_POINTS);
+    }
+    /**
+     * Adds a block type to the tile map. The blocks of all the types have the width of a cell.
+     *
+     * @param height the height of the block.
+     * @param fills the fills of the block by the number of hit-points.
+     * @param strokeColor the stroke color.
+     * @param blockHitPoints number of hit-points of a new block.
+     * @return the number of the type (for setTile()), or -1 if the type can't be kept in the tile map.
+     */
+    public int addType(double height, BlockFills fills, Color strokeColor, int blockHitPoints) {
+        if ((this.typeHeights.size() == MAX_TYPES) || !fits(height, this.rowHeight, blockHitPoints)) {
+            return -1;
+        }
+        this.typeHeights.add(height);
+        this.typeFills.add(fills);
+        this.typeStrokes.add(strokeColor);
+        this.typeHitPoints.add(blockHitPoints);
+        return this.typeHeights.size();
+    }
+    /**
+     * Puts a new block of the given type in a cell.
+     *
+     * @param column the column of the cell.
+     * @param row the row of the cell.
+     * @param type the number of the block type.
+     */
+    public void setTile(int column, int row, int type) {
+        int cell = (row * this.columns) + column;
+        if (!this.isAlive(cell)) {
+            this.remaining++;
+        }
+        this.types[cell] = (byte) type;
+        this.hitPoints[cell] = (byte) (int) this.typeHitPoints.get(type - 1);
+        this.alive[cell >>> 6] |= 1L << cell;
+    }
+    /**
+     * Returns the number of blocks that are still in the game.
+     *
+     * @return the number of blocks that are still in the game.
+     */
+    public int getRemainingTiles() {
+        return this.remaining;
+    }
+    /**
+     * Returns a hash of the state of the tiles: which blocks are still in the game, and their hit-points.
+     *
+     * @return the hash of the state of the tiles.
+     */
+    public long getStateHash() {
+        long hash = 0;
+        for (int cell = 0; cell < this.types.length; cell++) {
+            if (this.isAlive(cell)) {
+                hash = (hash * 31) + cell;
+                hash = (hash * 31) + this.hitPoints[cell];
+            }
+        }
+        return hash;
+    }
+    /**
+     * Returns the number of cells of the grid.
+     *
+     * @return the number of cells of the grid.
+     */
+    public int getTileCount() {
+        return this.columns * this.rows;
+    }
+    /**
+     * Walks the cells that the trajectory passes through, and tests the tiles around each of them (as far as the
+     *  radius reaches), in the order the trajectory reaches them.
+     *
+     * @param x1 the x value of the start of the trajectory.
+     * @param y1 the y value of the start of the trajectory.
+     * @param x2 the x value of the end of the trajectory.
+     * @param y2 the y value of the end of the trajectory.
+     * @param radius the radius of the circle (0 for a point).
+     * @param firstOrder the insertion order of the first cell.
+     * @param hit the hit record of the query.
+     */
+    public void traverse(double x1, double y1, double x2, double y2, double radius, int firstOrder, NearestHit hit) {
+        if (this.remaining == 0) {
+            return;
+        }
+        // Number of cells around the center's cell that the circle may touch
+        int reachX = (int) Math.ceil((radius + EPSILON) / this.cellWidth);
+        int reachY = (int) Math.ceil((radius + EPSILON) / this.rowHeight);
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        // Clip the trajectory to the grid (grown by the reach), so the walk does not go over empty space
+        double tStart = 0;
+        double tEnd = 1;
+        double minX = this.originX - (reachX * this.cellWidth);
+        double maxX = this.originX + ((this.columns + reachX) * this.cellWidth);
+        double minY = this.originY - (reachY * this.rowHeight);
+        double maxY = this.originY + ((this.rows + reachY) * this.rowHeight);
+        if (dx == 0) {
+            if ((x1 < minX) || (x1 > maxX)) {
+                return;
+            }
+        } else {
+            double t1 = (minX - x1) / dx;
+            double t2 = (maxX - x1) / dx;
+            tStart = Math.max(tStart, Math.min(t1, t2));
+            tEnd = Math.min(tEnd, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if ((y1 < minY) || (y1 > maxY)) {
+                return;
+            }
+        } else {
+            double t1 = (minY - y1) / dy;
+            double t2 = (maxY - y1) / dy;
+            tStart = Math.max(tStart, Math.min(t1, t2));
+            tEnd = Math.min(tEnd, Math.max(t1, t2));
+        }
+        if (tStart > tEnd) {
+            return;
+        }
+        // The cells of the start and the end of the clipped trajectory
+        int column = this.column(x1 + (tStart * dx), reachX);
+        int row = this.row(y1 + (tStart * dy), reachY);
+        int endColumn = this.column(x1 + (tEnd * dx), reachX);
+        int endRow = this.row(y1 + (tEnd * dy), reachY);
+        int stepX = (dx > 0) ? 1 : ((dx < 0) ? -1 : 0);
+        int stepY = (dy > 0) ? 1 : ((dy < 0) ? -1 : 0);
+        // The part of the trajectory it takes to cross a cell, and to reach the next cell border, on each axis
+        double tDeltaX = (stepX != 0) ? (this.cellWidth / Math.abs(dx)) : Double.POSITIVE_INFINITY;
+        double tDeltaY = (stepY != 0) ? (this.rowHeight / Math.abs(dy)) : Double.POSITIVE_INFINITY;
+        double tMaxX = Double.POSITIVE_INFINITY;
+        double tMaxY = Double.POSITIVE_INFINITY;
+        if (stepX != 0) {
+            tMaxX = ((this.originX + ((column + (stepX > 0 ? 1 : 0)) * this.cellWidth)) - x1) / dx;
+        }
+        if (stepY != 0) {
+            tMaxY = ((this.originY + ((row + (stepY > 0 ? 1 : 0)) * this.rowHeight)) - y1) / dy;
+        }
+        // Number of cell borders the trajectory crosses
+        int steps = Math.abs(endColumn - column) + Math.abs(endRow - row);
+        this.visitArea(column - reachX, column + reachX, row - reachY, row + reachY, firstOrder, hit);
+        while (steps > 0) {
+            double tEnter;
+            boolean stepsX = tMaxX <= tMaxY;
+            boolean stepsY = tMaxY <= tMaxX;
+            if (stepsX) {
+                tEnter = tMaxX;
+                column += stepX;
+                tMaxX += tDeltaX;
+                steps--;
+            } else {
+                tEnter = tMaxY;
+            }
+            if (stepsY) {
+                row += stepY;
+                tMaxY += tDeltaY;
+                steps--;
+            }
+            if (hit.isDone(tEnter)) {
+                return;
+            }
+            // Only the tiles that were not around the previous cell are new
+            if (stepsX) {
+                int newColumn = column + (stepX * reachX);
+                this.visitArea(newColumn, newColumn, row - reachY, row + reachY, firstOrder, hit);
+            }
+            if (stepsY) {
+                int newRow = row + (stepY * reachY);
+                this.visitArea(column - reachX, column + reachX, newRow, newRow, firstOrder, hit);
+            }
+        }
+    }
+    /**
+     * Returns the block of a tile, that is told about the hits. The block is made when the tile is hit for the
+     *  first time, and it is kept until it is removed from the game.
+     *
+     * @param cell the cell of the tile.
+     * @return the block of the tile.
+     */
+    public Collidable getTile(int cell) {
+        TileBlock block = this.blocks.get(cell);
+        if (block == null) {
+            int type = this.types[cell] - 1;
+            Point upperLeft = new Point(this.originX + ((cell % this.columns) * this.cellWidth),
+                    this.originY + ((cell / this.columns) * this.rowHeight));
+            block = new TileBlock(this, cell, new Rectangle(upperLeft, this.cellWidth, this.typeHeights.get(type)),
+                    this.typeFills.get(type), this.typeStrokes.get(type), this.hitPoints[cell]);
+            for (HitListener hl : this.hitListeners) {
+                block.addHitListener(hl);
+            }
+            this.blocks.put(cell, block);
+        }
+        return block;
+    }
+    /**
+     * Adds hl as a listener to hit events of all the tiles.
+     *
+     * @param hl a HitListener.
+     */
+    public void addHitListener(HitListener hl) {
+        this.hitListeners.add(hl);
+        for (TileBlock block : this.blocks.values()) {
+            block.addHitListener(hl);
+        }
+    }
+    /**
+     * Removes hl from the list of listeners to hit events of all the tiles.
+     *
+     * @param hl a HitListener.
+     */
+    public void removeHitListener(HitListener hl) {
+        this.hitListeners.remove(hl);
+        for (TileBlock block : this.blocks.values()) {
+            block.removeHitListener(hl);
+        }
+    }
+    /**
+     * Draws the blocks that are still in the game on the given DrawSurface.
+     *
+     * @param d a surface to draw on it.
+     */
+    public void drawOn(DrawSurface d) {
+        for (int word = 0; word < this.alive.length; word++) {
+            long bits = this.alive[word];
+            while (bits != 0) {
+                int cell = (word * 64) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                this.drawTile(d, cell);
+            }
+        }
+    }
+    /**
+     * Draws the blocks that are still in the game and are in a rectangle of the given region on the given
+     *  DrawSurface: only the columns and the rows of the rectangle are walked, so a small rectangle costs a few
+     *  tiles and not all of them.
+     *
+     * @param d a surface to draw on it.
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     */
+    public void drawIn(DrawSurface d, DirtyRegion region, int i) {
+        if (!region.intersects(i, (int) this.originX, (int) this.originY, (int) (this.columns * this.cellWidth) + 2,
+                (int) (this.rows * this.rowHeight) + 2)) {
+            return;
+        }
+        // The stroke of a block is drawn one pixel to the right and below its cell, so the cells to the left and
+        //  above the rectangle are included
+        int fromColumn = this.column(region.getX(i) - 1, 0);
+        int toColumn = this.column(region.getX(i) + region.getWidth(i), 0);
+        int fromRow = this.row(region.getY(i) - 1, 0);
+        int toRow = this.row(region.getY(i) + region.getHeight(i), 0);
+        for (int r = fromRow; r <= toRow; r++) {
+            for (int c = fromColumn; c <= toColumn; c++) {
+                int cell = (r * this.columns) + c;
+                if (this.isAlive(cell)) {
+                    this.drawTile(d, cell);
+                }
+            }
+        }
+    }
+    /**
+     * Notifies the sprite that time has passed.
+     */
+    public void timePassed() {
+        // Do nothing
+    }
+    /**
+     * Adds this tile map to the game.
+     *
+     * @param g the game.
+     */
+    public void addToGame(GameLevel g) {
+        g.addSprite(this);
+        g.addTiles(this);
+    }
+    /**
+     * Removes this tile map from the game.
+     *
+     * @param g the game.
+     */
+    public void removeFromGame(GameLevel g) {
+        g.removeSprite(this);
+        g.removeTiles(this);
+    }
+    /**
+     * Sets the number of hit-points of a tile.
+     *
+     * @param cell the cell of the tile.
+     * @param points the number of hit-points.
+     */
+    void setHitPoints(int cell, int points) {
+        this.hitPoints[cell] = (byte) points;
+    }
+    /**
+     * Removes the block of a tile from the game.
+     *
+     * @param cell the cell of the tile.
+     */
+    void removeTile(int cell) {
+        if (this.isAlive(cell)) {
+            this.alive[cell >>> 6] &= ~(1L << cell);
+            this.remaining--;
+        }
+        this.blocks.remove(cell);
+    }
+    /**
+     * Tests the tiles in an area of cells with the hit record.
+     *
+     * @param fromColumn the first column (may be out of the grid).
+     * @param toColumn the last column (may be out of the grid).
+     * @param fromRow the first row (may be out of the grid).
+     * @param toRow the last row (may be out of the grid).
+     * @param firstOrder the insertion order of the first cell.
+     * @param hit the hit record of the query.
+     */
+    private void visitArea(int fromColumn, int toColumn, int fromRow, int toRow, int firstOrder, NearestHit hit) {
+        int lastColumn = Math.min(this.columns - 1, toColumn);
+        int lastRow = Math.min(this.rows - 1, toRow);
+        for (int r = Math.max(0, fromRow); r <= lastRow; r++) {
+            for (int c = Math.max(0, fromColumn); c <= lastColumn; c++) {
+                int cell = (r * this.columns) + c;
+                if (this.isAlive(cell)) {
+                    double left = this.originX + (c * this.cellWidth);
+                    double top = this.originY + (r * this.rowHeight);
+                    hit.visitTile(this, cell, firstOrder + cell, left, top, left + this.cellWidth,
+                            top + this.typeHeights.get(this.types[cell] - 1));
+                }
+            }
+        }
+    }
+    /**
+     * Checks whether the block of a tile is still in the game.
+     *
+     * @param cell the cell of the tile.
+     * @return true if the block is in the game, false otherwise.
+     */
+    private boolean isAlive(int cell) {
+        return (this.alive[cell >>> 6] & (1L << cell)) != 0;
+    }
+    /**
+     * Returns the column of the given x value, clamped to the grid grown by the reach.
+     *
+     * @param x an x value.
+     * @param reach number of columns the grid is grown by.
+     * @return the column of the x value.
+     */
+    private int column(double x, int reach) {
+        int column = (int) Math.floor((x - this.originX) / this.cellWidth);
+        return Math.max(-reach, Math.min(this.columns - 1 + reach, column));
+    }
+    /**
+     * Returns the row of the given y value, clamped to the grid grown by the reach.
+     *
+     * @param y a y value.
+     * @param reach number of rows the grid is grown by.
+     * @return the row of the y value.
+     */
+    private int row(double y, int reach) {
+        int row = (int) Math.floor((y - this.originY) / this.rowHeight);
+        return Math.max(-reach, Math.min(this.rows - 1 + reach, row));
+    }
+    /**
+     * Draws the block of a tile, with the block of its type and number of hit-points moved to the tile.
+     *
+     * @param d a surface to draw on it.
+     * @param cell the cell of the tile.
+     */
+    private void drawTile(DrawSurface d, int cell) {
+        Block block = this.prototype(this.types[cell], this.hitPoints[cell]);
+        Point upperLeft = block.getCollisionRectangle().getUpperLeft();
+        upperLeft.setX(this.originX + ((cell % this.columns) * this.cellWidth));
+        upperLeft.setY(this.originY + ((cell / this.columns) * this.rowHeight));
+        block.drawOn(d);
+    }
+    /**
+     * Returns the block that draws the tiles of the given type and number of hit-points.
+     *
+     * @param type the number of the block type.
+     * @param points the number of hit-points.
+     * @return the block that draws the tiles.
+     */
+    private Block prototype(int type, int points) {
+        int key = (type * (MAX_HIT_POINTS + 1)) + points;
+        Block block = this.prototypes[key];
+        if (block == null) {
+            block = new Block(new Rectangle(new Point(0, 0), this.cellWidth, this.typeHeights.get(type - 1)),
+                    this.typeFills.get(type - 1), this.typeStrokes.get(type - 1), points);
+            this.prototypes[key] = block;
+        }
+        return block;
+    }
+}
@@ -0,0 +1,30 @@
+package sprites;
+
+/**
+ * The TrackedSprite interface will be used by sprites that know which areas of the screen they change, so a frame
+ *  can draw again only the areas that changed since the previous frame.
+ *
+ * @author Ayelet Tennenboim
+ */
+public interface TrackedSprite extends Sprite {
+    /**
+     * Adds to the given region the areas of the screen that the sprite changes since it was last drawn: the area it
+     *  was drawn at and the area it is going to be drawn at, if they are different (or if it looks different). The
+     *  sprite remembers the new area as drawn. A sprite that was not drawn yet adds the area it is going to be drawn
+     *  at.
+     *
+     * @param region the areas that changed.
+     * @param alpha the part of the way that the moving sprites are drawn at (1 for their position now).
+     */
+    void addDirtyAreas(DirtyRegion region, double alpha);
+    /**
+     * Checks if the area that the sprite is drawn at (the area it remembered as drawn in the last call to
+     *  addDirtyAreas) intersects a rectangle of the given region, so the sprite is drawn in the rectangle only if it
+     *  changes it.
+     *
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     * @return true if the sprite is drawn in the rectangle, false otherwise.
+     */
+    boolean isDrawnIn(DirtyRegion region, int i);
+}
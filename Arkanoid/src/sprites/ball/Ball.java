@@ -1,37 +1,36 @@
 package sprites.ball;
 
 import game.GameLevel;
-import geometricshapes.Line;
 import geometricshapes.Point;
 import game.GameEnvironment;
-import collisiondetection.Collidable;
-import collisiondetection.CollisionInfo;
-import sprites.Sprite;
+import sprites.DirtyRegion;
+import sprites.InterpolatedSprite;
+import sprites.TrackedSprite;
 import biuoop.DrawSurface;
-import java.awt.Color;
 
 /**
  * ball - A ball has size (radius), color, and location of its center (a Point). A ball also knows how to draw itself
  *  on a DrawSurface, and it can move on the screen according to its velocity.
  *
+ * The state of the ball is kept in a BallSystem, and the ball is a view of its slot there. In a game, all the balls
+ *  share the ball system of the game level.
+ *
  * @author Ayelet Tennenboim
  */
-public class Ball implements Sprite {
-    // Location
-    private Point center;
-    // Size
-    private int radius;
-    // Color
-    private java.awt.Color color;
-    // sprites.ball.Velocity
-    private Velocity vel;
+public class Ball implements InterpolatedSprite, TrackedSprite {
+    // The ball system that keeps the state of the ball, and the index of the ball in it
+    private BallSystem system;
+    private int index;
     // The motion range of the ball on the screen
     private int minWidthLimit;
     private int maxWidthLimit;
     private int minHeightLimit;
     private int maxHeightLimit;
-    // The game environment
-    private GameEnvironment environment;
+    // The center and the radius that the ball was last drawn with, and an indication whether it was drawn
+    private int drawnX;
+    private int drawnY;
+    private int drawnRadius;
+    private boolean drawn;
 
     /**
      * Constructor number 1 - according to a center point, radius and color.
@@ -41,9 +40,7 @@ public class Ball implements Sprite {
      * @param color the color of the ball.
      */
     public Ball(Point center, int r, java.awt.Color color) {
-        this.center = center;
-        this.radius = r;
-        this.color = color;
+        this(new BallSystem(1), center.getX(), center.getY(), r, color);
     }
     /**
      * Constructor number 2 - according to x and y values of the center point, radius and color.
@@ -54,9 +51,19 @@ public class Ball implements Sprite {
      * @param color the color of the ball.
      */
     public Ball(int x, int y, int r, java.awt.Color color) {
-        this.center = new Point(x, y);
-        this.radius = r;
-        this.color = color;
+        this(new BallSystem(1), x, y, r, color);
+    }
+    /**
+     * Constructor number 3 - creates a ball in the given ball system.
+     *
+     * @param system the ball system that keeps the state of the ball.
+     * @param x the x value of the center point of the ball.
+     * @param y the y value of the center point of the ball.
+     * @param r the radius of the ball.
+     * @param color the color of the ball.
+     */
+    Ball(BallSystem system, double x, double y, int r, java.awt.Color color) {
+        system.bind(this, x, y, r, color);
     }
     /**
      * Gets the x value of the center point of this ball.
@@ -64,7 +71,7 @@ public class Ball implements Sprite {
      * @return the x value of the center point of this ball.
      */
     public int getX() {
-        return (int) this.center.getX();
+        return (int) this.system.getX(this.index);
     }
     /**
      * Gets the y value of the center point of this ball.
@@ -72,7 +79,15 @@ public class Ball implements Sprite {
      * @return the y value of the center point of this ball.
      */
     public int getY() {
-        return (int) this.center.getY();
+        return (int) this.system.getY(this.index);
+    }
+    /**
+     * Gets the change in position of this ball on the y axis, without copying its velocity.
+     *
+     * @return the change in position on the y axis (NaN if the velocity is not set).
+     */
+    public double getDy() {
+        return this.system.getDy(this.index);
     }
     /**
      * Gets the size (radius) of this ball.
@@ -80,7 +95,7 @@ public class Ball implements Sprite {
      * @return the size (radius) of this ball.
      */
     public int getSize() {
-        return this.radius;
+        return this.system.getRadius(this.index);
     }
     /**
      * Gets the color of this ball.
@@ -88,7 +103,7 @@ public class Ball implements Sprite {
      * @return the color of this ball.
      */
     public java.awt.Color getColor() {
-        return this.color;
+        return this.system.getColor(this.index);
     }
     /**
      * Draws the ball on the given DrawSurface.
@@ -96,10 +111,55 @@ public class Ball implements Sprite {
      * @param surface a surface to draw on it.
      */
     public void drawOn(DrawSurface surface) {
-        surface.setColor(this.color);
-        surface.fillCircle((int) this.center.getX(), (int) this.center.getY(), this.radius);
-        surface.setColor(Color.BLACK);
-        surface.drawCircle((int) this.center.getX(), (int) this.center.getY(), this.radius);
+        this.system.drawBall(this.index, surface, 1);
+    }
+    /**
+     * Draws the ball on the given DrawSurface, at the given part of the way from its center before its last step to
+     *  its center now.
+     *
+     * @param surface a surface to draw on it.
+     * @param alpha the part of the way (0 for the center before the last step, 1 for the center now).
+     */
+    public void drawOn(DrawSurface surface, double alpha) {
+        this.system.drawBall(this.index, surface, alpha);
+    }
+    /**
+     * Adds the area that the ball was last drawn at and the area it is going to be drawn at to the given region, if
+     *  the ball moved since it was last drawn.
+     *
+     * @param region the areas that changed.
+     * @param alpha the part of the way that the ball is drawn at (0 for the center before the last step, 1 for the
+     *  center now).
+     */
+    public void addDirtyAreas(DirtyRegion region, double alpha) {
+        int x = this.system.centerX(this.index, alpha);
+        int y = this.system.centerY(this.index, alpha);
+        int r = this.system.getRadius(this.index);
+        if (this.drawn && (x == this.drawnX) && (y == this.drawnY) && (r == this.drawnRadius)) {
+            return;
+        }
+        // The stroke of the circle is drawn one pixel to the right and below its square
+        if (this.drawn) {
+            region.add(this.drawnX - this.drawnRadius, this.drawnY - this.drawnRadius, (2 * this.drawnRadius) + 1,
+                    (2 * this.drawnRadius) + 1);
+        }
+        region.add(x - r, y - r, (2 * r) + 1, (2 * r) + 1);
+        this.drawnX = x;
+        this.drawnY = y;
+        this.drawnRadius = r;
+        this.drawn = true;
+    }
+    /**
+     * Checks if the area that the ball was last drawn at (with its stroke) intersects a rectangle of the given
+     *  region.
+     *
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     * @return true if the ball is drawn in the rectangle, false otherwise.
+     */
+    public boolean isDrawnIn(DirtyRegion region, int i) {
+        return region.intersects(i, this.drawnX - this.drawnRadius, this.drawnY - this.drawnRadius,
+                (2 * this.drawnRadius) + 1, (2 * this.drawnRadius) + 1);
     }
     /**
      * Sets the velocity of this ball according to a given velocity value.
@@ -107,7 +167,11 @@ public class Ball implements Sprite {
      * @param v a velocity value.
      */
     public void setVelocity(Velocity v) {
-        this.vel = v;
+        if (v == null) {
+            this.system.setVelocity(this.index, Double.NaN, Double.NaN);
+        } else {
+            this.system.setVelocity(this.index, v.getDx(), v.getDy());
+        }
     }
     /**
      * Sets the velocity of this ball according to dx and dy values.
@@ -116,15 +180,15 @@ public class Ball implements Sprite {
      * @param dy the change in position on the y axis.
      */
     public void setVelocity(double dx, double dy) {
-        this.vel = new Velocity(dx, dy);
+        this.setVelocity(new Velocity(dx, dy));
     }
     /**
-     * Gets the velocity of this ball.
+     * Gets the velocity of this ball. The velocity is a copy - changing it does not change the ball.
      *
-     * @return the velocity of this ball.
+     * @return the velocity of this ball (or null if it is not set).
      */
     public Velocity getVelocity() {
-        return this.vel;
+        return this.system.getVelocity(this.index);
     }
     /**
      * Sets the motion range of this ball on the screen.
@@ -146,7 +210,16 @@ public class Ball implements Sprite {
      * @param gEnvironment the game environment of the ball.
      */
     public void setGameEnvironment(GameEnvironment gEnvironment) {
-        this.environment = gEnvironment;
+        this.system.setGameEnvironment(this.index, gEnvironment);
+    }
+    /**
+     * Sets the maximum number of collisions that are resolved in one step. After that many collisions, the ball stays
+     *  where it touched the last collidable until the next step.
+     *
+     * @param max the maximum number of collisions in one step (at least 1).
+     */
+    public void setMaxCollisionsPerStep(int max) {
+        this.system.setMaxCollisions(this.index, Math.max(1, max));
     }
     /**
      * Gets the game environment of the ball.
@@ -154,54 +227,21 @@ public class Ball implements Sprite {
      * @return the game environment of the ball.
      */
     public GameEnvironment getGameEnvironment() {
-        return this.environment;
+        return this.system.getGameEnvironment(this.index);
     }
     /**
      * Move the ball to its next position on the screen.
      *
-     * The method changes the position of the center point from (x,y) to (x+dx, y+dy). When the ball hits a collidable
-     *  to the left or to the right, it changes its horizontal direction, and when the ball hits a collidable at the
-     *  top or the bottom, it changes its vertical direction. If the ball hits the paddle - it changes its direction
-     *  according to the region it hits the paddle.
+     * The method changes the position of the center point from (x,y) to (x+dx, y+dy). The whole ball (not only its
+     *  center) is swept along the way, so a fast ball can't pass through a thin block or a corner. When the ball hits
+     *  a collidable, it moves to where it touches it (the time of impact): when it hits a collidable to the left or to
+     *  the right, it changes its horizontal direction, and when it hits a collidable at the top or the bottom, it
+     *  changes its vertical direction. If the ball hits the paddle - it changes its direction according to the region
+     *  it hits the paddle. Then the ball goes on with the rest of the step in its new direction, so it can hit
+     *  several collidables (in order) in one step, up to the maximum number of collisions per step.
      */
     public void moveOneStep() {
-        Line trajectory;
-        Point collisionPoint;
-        Collidable collisionObject;
-        // dx and dy values of this velocity before the change
-        double originalDx = this.vel.getDx();
-        double originalDy = this.vel.getDy();
-        // If the velocity is not set
-        if (this.vel == null) {
-            // Print an error message
-            System.out.println("Error! Velocity is not set");
-            // Close the program
-            System.exit(-1);
-        }
-        // Compute the ball trajectory
-        trajectory = new Line(this.center.getX(), this.center.getY(), this.center.getX() + this.vel.getDx(),
-                this.center.getY() + this.vel.getDy());
-        // Get the collision information
-        CollisionInfo collision = this.environment.getClosestCollision(trajectory);
-        // If there is no collision point
-        if (collision == null) {
-            // Change the position of the center point from (x,y) to (x+dx, y+dy)
-             this.center = this.getVelocity().applyToPoint(this.center);
-         // If there is a collision point
-        } else {
-            // Save the collision point
-            collisionPoint = collision.collisionPoint();
-            // Save the collision object
-            collisionObject = collision.collisionObject();
-            // Update the velocity to the new velocity returned by the hit() method
-            this.vel = collisionObject.hit(this, collisionPoint, this.vel);
-            // If the velocity didn't change (it means the next step will be into the paddle)
-            if (GameLevel.compareDoubles(this.vel.getDx(), originalDx)
-                    && GameLevel.compareDoubles(this.vel.getDy(), originalDy)) {
-                // Update the next step to be out of the screen
-                this.center = new Point(this.center.getX(), this.center.getY() + 20);
-            }
-        }
+        this.system.moveOneStep(this.index);
     }
     /**
      * Notifies the sprite that time has passed - move one step.
@@ -215,7 +255,7 @@ public class Ball implements Sprite {
      * @param g the game.
      */
     public void addToGame(GameLevel g) {
-        g.addSprite(this);
+        g.addBall(this);
     }
     /**
      * Removes this ball from the game.
@@ -223,6 +263,32 @@ public class Ball implements Sprite {
      * @param g the game.
      */
     public void removeFromGame(GameLevel g) {
-        g.removeSprite(this);
+        g.removeBall(this);
+    }
+    /**
+     * Gets the ball system that keeps the state of the ball.
+     *
+     * @return the ball system of the ball.
+     */
+    BallSystem getSystem() {
+        return this.system;
+    }
+    /**
+     * Gets the index of the ball in its ball system.
+     *
+     * @return the index of the ball.
+     */
+    int getIndex() {
+        return this.index;
+    }
+    /**
+     * Binds the ball to a slot in a ball system.
+     *
+     * @param s the ball system.
+     * @param i the index of the ball in the system.
+     */
+    void setSlot(BallSystem s, int i) {
+        this.system = s;
+        this.index = i;
     }
 }
\ No newline at end of file
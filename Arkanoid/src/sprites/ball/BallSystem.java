@@ -0,0 +1,787 @@
+package sprites.ball;
+
+import biuoop.DrawSurface;
+import collisiondetection.NearestHit;
+import game.GameEnvironment;
+import game.GameLevel;
+import sprites.DirtyRegion;
+import sprites.InterpolatedSprite;
+import sprites.TrackedSprite;
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * BallSystem - a collection of balls that keeps the state of all the balls in primitive arrays (struct of arrays):
+ *  the centers, velocities and radii. All the balls are moved in one loop, and drawn in another, so many balls can be
+ *  moved without a separate object (and a virtual call) for every ball.
+ *
+ * A Ball object is a thin view of one slot in a system, so the hit listeners and the collidables still get a Ball
+ *  as the hitter. A ball that is not in a game has a system of its own.
+ *
+ * The balls are kept in the order they were added. A ball that is removed while the balls move is only marked as
+ *  removed, and the slots are compacted (in order) after all the balls moved - so removing a ball during a hit
+ *  does not change the order in which the other balls move.
+ *
+ * In parallel mode, the first query of every ball's step is made in parallel (the queries only read the game
+ *  environment). Then the balls are moved one by one, in order: a ball that hits nothing just moves to the end of
+ *  its trajectory, and a ball that hits a collidable is moved again from the start, so the hits, the hit listeners
+ *  and the removals happen exactly as in serial mode. A hit can only remove collidables, so a ball that hit nothing
+ *  still hits nothing after the balls before it moved - unless a collidable was added or moved meanwhile, and then
+ *  the ball is moved again as well. So both modes give exactly the same results.
+ *
+ * The centers of the balls before their last step are kept too, so the balls can be drawn between their last two
+ *  positions (when the frames are faster than the ticks).
+ *
+ * @author Ayelet Tennenboim
+ */
+public class BallSystem implements InterpolatedSprite, TrackedSprite {
+    // Default maximum number of collisions that are resolved in one step
+    private static final int DEFAULT_MAX_COLLISIONS = 4;
+    // Default number of balls that the arrays hold before they grow
+    private static final int DEFAULT_CAPACITY = 16;
+    // Number of balls that are queried by one parallel task (fewer balls are moved serially)
+    private static final int PARALLEL_BATCH = 256;
+    // The offset basis and the prime of the FNV-1a hash of the state
+    private static final long HASH_BASIS = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+    // Number of slots in use (including removed balls that were not compacted yet)
+    private int count;
+    // The centers of the balls
+    private double[] x;
+    private double[] y;
+    // The centers of the balls before their last step
+    private double[] previousX;
+    private double[] previousY;
+    // The velocities of the balls (dx is NaN while the velocity is not set)
+    private double[] dx;
+    private double[] dy;
+    // The radii of the balls
+    private int[] radius;
+    // The colors of the balls
+    private Color[] colors;
+    // The game environment of each ball
+    private GameEnvironment[] environments;
+    // Maximum number of collisions that are resolved in one step of each ball
+    private int[] maxCollisions;
+    // Indication whether each ball is still in the system
+    private boolean[] alive;
+    // The Ball view of each slot
+    private Ball[] views;
+    // Indication whether some balls were removed and the slots should be compacted
+    private boolean dirty;
+    // The system that keeps the state of the balls that were removed from this system (made when it is needed)
+    private BallSystem detached;
+    // Indication whether the balls are moving now (the slots can't be compacted)
+    private boolean stepping;
+    // The closest collision of the current step (reused by every step)
+    private NearestHit hit;
+    // The velocity that is given to the collidables (reused by every hit)
+    private Velocity velocity;
+    // Indication whether the balls are queried in parallel
+    private boolean parallel;
+    // The results of the parallel query of each ball: whether it hits nothing, the end of its trajectory, and the
+    //  version of its game environment at the time of the query
+    private boolean[] free;
+    private double[] nextX;
+    private double[] nextY;
+    private int[] versions;
+    // The length of a step, in base ticks (a ball moves its velocity times it in a step)
+    private double stepTime;
+    // The areas that the balls were last drawn at (the x and y values of the upper-left point and the size of each
+    //  square), and the number of values in use
+    private int[] drawnAreas;
+    private int drawnLength;
+    // The areas that the balls are going to be drawn at (reused by every frame)
+    private int[] nextAreas;
+
+    /**
+     * Constructor number 1 - creates a new empty BallSystem.
+     */
+    public BallSystem() {
+        this(DEFAULT_CAPACITY);
+    }
+    /**
+     * Constructor number 2 - creates a new empty BallSystem with room for the given number of balls.
+     *
+     * @param capacity the number of balls that the system holds before its arrays grow.
+     */
+    public BallSystem(int capacity) {
+        int size = Math.max(1, capacity);
+        this.x = new double[size];
+        this.y = new double[size];
+        this.previousX = new double[size];
+        this.previousY = new double[size];
+        this.dx = new double[size];
+        this.dy = new double[size];
+        this.radius = new int[size];
+        this.colors = new Color[size];
+        this.environments = new GameEnvironment[size];
+        this.maxCollisions = new int[size];
+        this.alive = new boolean[size];
+        this.views = new Ball[size];
+        this.drawnAreas = new int[0];
+        this.nextAreas = new int[0];
+        this.count = 0;
+        this.hit = new NearestHit();
+        this.velocity = new Velocity(0, 0);
+        this.stepTime = 1;
+    }
+    /**
+     * Creates a new ball in the system.
+     *
+     * @param centerX the x value of the center point of the ball.
+     * @param centerY the y value of the center point of the ball.
+     * @param r the radius of the ball.
+     * @param color the color of the ball.
+     * @return the new ball.
+     */
+    public Ball create(double centerX, double centerY, int r, Color color) {
+        return new Ball(this, centerX, centerY, r, color);
+    }
+    /**
+     * Moves the given ball (with its whole state) into this system. If the ball is in another system, it is removed
+     *  from it.
+     *
+     * @param ball the given ball.
+     */
+    public void add(Ball ball) {
+        BallSystem old = ball.getSystem();
+        int oldIndex = ball.getIndex();
+        // If the ball is already in this system
+        if ((old == this) && this.alive[oldIndex]) {
+            return;
+        }
+        int i = this.bind(ball, old.x[oldIndex], old.y[oldIndex], old.radius[oldIndex], old.colors[oldIndex]);
+        this.dx[i] = old.dx[oldIndex];
+        this.dy[i] = old.dy[oldIndex];
+        this.environments[i] = old.environments[oldIndex];
+        this.maxCollisions[i] = old.maxCollisions[oldIndex];
+        // The old slot is dropped by the next compaction, since its view is bound to the new slot
+        old.release(oldIndex);
+    }
+    /**
+     * Removes the given ball from the system. The ball keeps its state in the system of the removed balls (one for
+     *  all the balls that were removed from this system), so it can be added to a game again.
+     *
+     * @param ball the given ball.
+     */
+    public void remove(Ball ball) {
+        if ((ball.getSystem() != this) || !this.alive[ball.getIndex()]) {
+            return;
+        }
+        this.release(ball.getIndex());
+    }
+    /**
+     * Sets the stepping mode: in parallel mode the balls are queried on all the cores (with the same results as in
+     *  serial mode).
+     *
+     * @param isParallel true for parallel mode, false for serial mode.
+     */
+    public void setParallel(boolean isParallel) {
+        this.parallel = isParallel;
+        if (isParallel && (this.free == null)) {
+            this.free = new boolean[this.x.length];
+            this.nextX = new double[this.x.length];
+            this.nextY = new double[this.x.length];
+            this.versions = new int[this.x.length];
+        }
+    }
+    /**
+     * Returns a hash of the state of all the balls in the system (their centers, velocities and radii, in order).
+     *  Two runs that give the same hash after every frame moved their balls the same way. The exact bits of the
+     *  doubles are hashed, so runs that differ in any bit give different hashes (up to collisions of the hash).
+     *
+     * @return the hash of the state of the balls.
+     */
+    public long getStateHash() {
+        long hash = HASH_BASIS;
+        for (int i = 0; i < this.count; i++) {
+            if (!this.alive[i]) {
+                continue;
+            }
+            hash = (hash ^ Double.doubleToLongBits(this.x[i])) * HASH_PRIME;
+            hash = (hash ^ Double.doubleToLongBits(this.y[i])) * HASH_PRIME;
+            // A velocity that is not set is hashed as NaN
+            hash = (hash ^ Double.doubleToLongBits(this.dx[i])) * HASH_PRIME;
+            hash = (hash ^ Double.doubleToLongBits(this.dy[i])) * HASH_PRIME;
+            hash = (hash ^ this.radius[i]) * HASH_PRIME;
+        }
+        return hash;
+    }
+    /**
+     * Sets the length of a step, in base ticks of 1/60 seconds. A ball moves its velocity times the length of the
+     *  step in every step.
+     *
+     * @param time the length of a step.
+     */
+    public void setStepTime(double time) {
+        this.stepTime = time;
+    }
+    /**
+     * Returns the number of balls in the system.
+     *
+     * @return the number of balls in the system.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < this.count; i++) {
+            if (this.alive[i]) {
+                size++;
+            }
+        }
+        return size;
+    }
+    /**
+     * Returns a ball of the system. Between the steps, the balls are at indexes 0 to size() - 1, in the order they
+     *  were added.
+     *
+     * @param i the index of the ball.
+     * @return the ball.
+     */
+    public Ball getBall(int i) {
+        return this.views[i];
+    }
+    /**
+     * Sets the game environment of all the balls in the system.
+     *
+     * @param environment the game environment of the balls.
+     */
+    public void setGameEnvironment(GameEnvironment environment) {
+        for (int i = 0; i < this.count; i++) {
+            this.environments[i] = environment;
+        }
+    }
+    /**
+     * Draws all the balls on the given DrawSurface, in the order they were added.
+     *
+     * @param d a surface to draw on it.
+     */
+    public void drawOn(DrawSurface d) {
+        for (int i = 0; i < this.count; i++) {
+            if (this.alive[i]) {
+                this.drawBall(i, d, 1);
+            }
+        }
+    }
+    /**
+     * Draws all the balls on the given DrawSurface, in the order they were added, at the given part of the way from
+     *  their centers before the last step to their centers now.
+     *
+     * @param d a surface to draw on it.
+     * @param alpha the part of the way (0 for the centers before the last step, 1 for the centers now).
+     */
+    public void drawOn(DrawSurface d, double alpha) {
+        for (int i = 0; i < this.count; i++) {
+            if (this.alive[i]) {
+                this.drawBall(i, d, alpha);
+            }
+        }
+    }
+    /**
+     * Adds the areas that the balls were last drawn at and the areas they are going to be drawn at to the given
+     *  region, if any ball moved (or was added or removed) since they were last drawn.
+     *
+     * @param region the areas that changed.
+     * @param alpha the part of the way that the balls are drawn at (0 for the centers before the last step, 1 for
+     *  the centers now).
+     */
+    public void addDirtyAreas(DirtyRegion region, double alpha) {
+        if (this.nextAreas.length < 3 * this.count) {
+            this.nextAreas = new int[3 * this.x.length];
+        }
+        int length = 0;
+        for (int i = 0; i < this.count; i++) {
+            if (this.alive[i]) {
+                this.nextAreas[length++] = this.centerX(i, alpha) - this.radius[i];
+                this.nextAreas[length++] = this.centerY(i, alpha) - this.radius[i];
+                // The stroke of the circle is drawn one pixel to the right and below its square
+                this.nextAreas[length++] = (2 * this.radius[i]) + 1;
+            }
+        }
+        if (this.sameAreas(length)) {
+            return;
+        }
+        for (int k = 0; k < this.drawnLength; k += 3) {
+            region.add(this.drawnAreas[k], this.drawnAreas[k + 1], this.drawnAreas[k + 2], this.drawnAreas[k + 2]);
+        }
+        for (int k = 0; k < length; k += 3) {
+            region.add(this.nextAreas[k], this.nextAreas[k + 1], this.nextAreas[k + 2], this.nextAreas[k + 2]);
+        }
+        int[] areas = this.drawnAreas;
+        this.drawnAreas = this.nextAreas;
+        this.nextAreas = areas;
+        this.drawnLength = length;
+    }
+    /**
+     * Checks if the area that any of the balls was last drawn at intersects a rectangle of the given region.
+     *
+     * @param region the areas that are drawn again.
+     * @param i the index of the rectangle in the region.
+     * @return true if a ball is drawn in the rectangle, false otherwise.
+     */
+    public boolean isDrawnIn(DirtyRegion region, int i) {
+        for (int k = 0; k < this.drawnLength; k += 3) {
+            if (region.intersects(i, this.drawnAreas[k], this.drawnAreas[k + 1], this.drawnAreas[k + 2],
+                    this.drawnAreas[k + 2])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Notifies the system that time has passed - moves all the balls one step, in the order they were added.
+     *  Balls that are added during the step start moving in the next step.
+     */
+    public void timePassed() {
+        boolean outer = this.stepping;
+        this.stepping = true;
+        int n = this.count;
+        boolean queried = this.parallel && (n > PARALLEL_BATCH);
+        if (queried) {
+            ForkJoinPool.commonPool().invoke(new QueryTask(0, n));
+        }
+        for (int i = 0; i < n; i++) {
+            if (!this.alive[i]) {
+                continue;
+            }
+            this.previousX[i] = this.x[i];
+            this.previousY[i] = this.y[i];
+            // If the parallel query is still valid and the ball hits nothing - move it to the end of its trajectory
+            if (queried && this.free[i] && (this.environments[i].getVersion() == this.versions[i])) {
+                this.x[i] = this.nextX[i];
+                this.y[i] = this.nextY[i];
+            } else {
+                this.stepBall(i);
+            }
+        }
+        this.stepping = outer;
+        this.compact();
+    }
+    /**
+     * Adds the system to the game.
+     *
+     * @param g the game.
+     */
+    public void addToGame(GameLevel g) {
+        g.addSprite(this);
+    }
+    /**
+     * Removes the system (with all its balls) from the game.
+     *
+     * @param g the game.
+     */
+    public void removeFromGame(GameLevel g) {
+        g.removeSprite(this);
+    }
+    /**
+     * Puts a ball in a new slot at the end of the arrays, and binds its view to the slot.
+     *
+     * @param view the view of the ball.
+     * @param centerX the x value of the center point of the ball.
+     * @param centerY the y value of the center point of the ball.
+     * @param r the radius of the ball.
+     * @param color the color of the ball.
+     * @return the index of the new slot.
+     */
+    int bind(Ball view, double centerX, double centerY, int r, Color color) {
+        if (this.count == this.x.length) {
+            this.grow();
+        }
+        int i = this.count++;
+        this.x[i] = centerX;
+        this.y[i] = centerY;
+        this.dx[i] = Double.NaN;
+        this.dy[i] = Double.NaN;
+        this.radius[i] = r;
+        this.colors[i] = color;
+        this.environments[i] = null;
+        this.maxCollisions[i] = DEFAULT_MAX_COLLISIONS;
+        this.alive[i] = true;
+        this.views[i] = view;
+        view.setSlot(this, i);
+        this.previousX[i] = this.x[i];
+        this.previousY[i] = this.y[i];
+        return i;
+    }
+    /**
+     * Gets the x value of the center point of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the x value of the center point.
+     */
+    double getX(int i) {
+        return this.x[i];
+    }
+    /**
+     * Gets the y value of the center point of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the y value of the center point.
+     */
+    double getY(int i) {
+        return this.y[i];
+    }
+    /**
+     * Gets the change in position of a ball on the y axis.
+     *
+     * @param i the index of the ball.
+     * @return the change in position on the y axis (NaN if the velocity is not set).
+     */
+    double getDy(int i) {
+        return Double.isNaN(this.dx[i]) ? Double.NaN : this.dy[i];
+    }
+    /**
+     * Gets the radius of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the radius of the ball.
+     */
+    int getRadius(int i) {
+        return this.radius[i];
+    }
+    /**
+     * Gets the color of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the color of the ball.
+     */
+    Color getColor(int i) {
+        return this.colors[i];
+    }
+    /**
+     * Gets a copy of the velocity of a ball.
+     *
+     * @param i the index of the ball.
+     * @return a copy of the velocity of the ball, or null if it is not set.
+     */
+    Velocity getVelocity(int i) {
+        if (Double.isNaN(this.dx[i])) {
+            return null;
+        }
+        Velocity v = new Velocity(0, 0);
+        v.setDx(this.dx[i]);
+        v.setDy(this.dy[i]);
+        return v;
+    }
+    /**
+     * Sets the velocity of a ball.
+     *
+     * @param i the index of the ball.
+     * @param velocityDx the change in position on the x axis (NaN if the velocity is not set).
+     * @param velocityDy the change in position on the y axis.
+     */
+    void setVelocity(int i, double velocityDx, double velocityDy) {
+        this.dx[i] = velocityDx;
+        this.dy[i] = velocityDy;
+    }
+    /**
+     * Gets the game environment of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the game environment of the ball.
+     */
+    GameEnvironment getGameEnvironment(int i) {
+        return this.environments[i];
+    }
+    /**
+     * Sets the game environment of a ball.
+     *
+     * @param i the index of the ball.
+     * @param environment the game environment of the ball.
+     */
+    void setGameEnvironment(int i, GameEnvironment environment) {
+        this.environments[i] = environment;
+    }
+    /**
+     * Sets the maximum number of collisions that are resolved in one step of a ball.
+     *
+     * @param i the index of the ball.
+     * @param max the maximum number of collisions in one step.
+     */
+    void setMaxCollisions(int i, int max) {
+        this.maxCollisions[i] = max;
+    }
+    /**
+     * Moves one ball one step.
+     *
+     * @param i the index of the ball.
+     */
+    void moveOneStep(int i) {
+        boolean outer = this.stepping;
+        this.stepping = true;
+        this.previousX[i] = this.x[i];
+        this.previousY[i] = this.y[i];
+        this.stepBall(i);
+        this.stepping = outer;
+        this.compact();
+    }
+    /**
+     * Draws one ball on the given DrawSurface, at the given part of the way from its center before the last step to
+     *  its center now.
+     *
+     * @param i the index of the ball.
+     * @param d a surface to draw on it.
+     * @param alpha the part of the way (0 for the center before the last step, 1 for the center now).
+     */
+    void drawBall(int i, DrawSurface d, double alpha) {
+        int centerX = this.centerX(i, alpha);
+        int centerY = this.centerY(i, alpha);
+        d.setColor(this.colors[i]);
+        d.fillCircle(centerX, centerY, this.radius[i]);
+        d.setColor(Color.BLACK);
+        d.drawCircle(centerX, centerY, this.radius[i]);
+    }
+    /**
+     * Returns the x value of the center of a ball at the given part of the way from its center before the last step
+     *  to its center now, in pixels.
+     *
+     * @param i the index of the ball.
+     * @param alpha the part of the way (0 for the center before the last step, 1 for the center now).
+     * @return the x value of the center of the ball.
+     */
+    int centerX(int i, double alpha) {
+        if (alpha < 1) {
+            return (int) (this.previousX[i] + ((this.x[i] - this.previousX[i]) * alpha));
+        }
+        return (int) this.x[i];
+    }
+    /**
+     * Returns the y value of the center of a ball at the given part of the way from its center before the last step
+     *  to its center now, in pixels.
+     *
+     * @param i the index of the ball.
+     * @param alpha the part of the way (0 for the center before the last step, 1 for the center now).
+     * @return the y value of the center of the ball.
+     */
+    int centerY(int i, double alpha) {
+        if (alpha < 1) {
+            return (int) (this.previousY[i] + ((this.y[i] - this.previousY[i]) * alpha));
+        }
+        return (int) this.y[i];
+    }
+    /**
+     * Checks if the areas that the balls are going to be drawn at are the areas they were last drawn at.
+     *
+     * @param length the number of values of the next areas.
+     * @return true if the areas are the same, false otherwise.
+     */
+    private boolean sameAreas(int length) {
+        if (length != this.drawnLength) {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            if (this.nextAreas[k] != this.drawnAreas[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Moves a ball to its next position on the screen, resolving up to its maximum number of collisions in order
+     *  (see Ball.moveOneStep()).
+     *
+     * @param i the index of the ball.
+     */
+    private void stepBall(int i) {
+        // If the velocity is not set
+        if (Double.isNaN(this.dx[i])) {
+            // Print an error message
+            System.out.println("Error! Velocity is not set");
+            // Close the program
+            System.exit(-1);
+        }
+        GameEnvironment environment = this.environments[i];
+        // The part of the step that is left
+        double timeLeft = 1;
+        for (int n = 0; n < this.maxCollisions[i]; n++) {
+            double endX = this.x[i] + (this.dx[i] * this.stepTime * timeLeft);
+            double endY = this.y[i] + (this.dy[i] * this.stepTime * timeLeft);
+            // Find the time of impact of the ball along the rest of its trajectory
+            boolean collides = environment.findNearestHit(this.x[i], this.y[i], endX, endY, this.radius[i],
+                    timeLeft, this.hit);
+            // If there is no collision point - move to the end of the trajectory
+            if (!collides) {
+                this.x[i] = endX;
+                this.y[i] = endY;
+                return;
+            }
+            // Move the ball to where it touches the collidable
+            this.x[i] = this.hit.getCenterX();
+            this.y[i] = this.hit.getCenterY();
+            timeLeft -= timeLeft * this.hit.getT();
+            // Update the velocity to the new velocity returned by the hit() method
+            this.velocity.setDx(this.dx[i]);
+            this.velocity.setDy(this.dy[i]);
+            Velocity newVelocity = this.hit.getCollidable().hit(this.views[i], this.hit.getPoint(), this.velocity);
+            this.dx[i] = newVelocity.getDx();
+            this.dy[i] = newVelocity.getDy();
+            // Make sure the ball leaves the collidable
+            this.bounceOffContact(i);
+            // If the hit removed the ball from the system, or the step is over
+            if (!this.alive[i] || (timeLeft <= 0)) {
+                return;
+            }
+        }
+    }
+    /**
+     * Makes the first query of the step of each ball in the given range, without changing the balls.
+     *
+     * @param from the index of the first ball.
+     * @param to the index after the last ball.
+     */
+    private void queryRange(int from, int to) {
+        NearestHit query = new NearestHit();
+        for (int i = from; i < to; i++) {
+            this.free[i] = false;
+            GameEnvironment environment = this.environments[i];
+            // Balls that can't move are left to the serial step
+            if (!this.alive[i] || Double.isNaN(this.dx[i]) || (environment == null)) {
+                continue;
+            }
+            this.versions[i] = environment.getVersion();
+            double endX = this.x[i] + (this.dx[i] * this.stepTime);
+            double endY = this.y[i] + (this.dy[i] * this.stepTime);
+            if (!environment.findNearestHit(this.x[i], this.y[i], endX, endY, this.radius[i], 1, query)) {
+                this.free[i] = true;
+                this.nextX[i] = endX;
+                this.nextY[i] = endY;
+            }
+        }
+    }
+    /**
+     * Reflects the velocity of a ball off the contact normal of the last hit, if the ball still moves into the
+     *  collidable (relative to the collidable's own motion).
+     *
+     * @param i the index of the ball.
+     */
+    private void bounceOffContact(int i) {
+        double normalX = this.hit.getNormalX();
+        double normalY = this.hit.getNormalY();
+        double approach = ((this.dx[i] - this.hit.getMotionX()) * normalX)
+                + ((this.dy[i] - this.hit.getMotionY()) * normalY);
+        if (approach < 0) {
+            // The same rounding as a new Velocity, without creating one
+            this.dx[i] = (double) ((float) (this.dx[i] - (2 * approach * normalX)));
+            this.dy[i] = (double) ((float) (this.dy[i] - (2 * approach * normalY)));
+        }
+    }
+    /**
+     * Marks a slot as removed, and compacts the slots unless the balls are moving now.
+     *
+     * @param i the index of the slot.
+     */
+    private void release(int i) {
+        this.alive[i] = false;
+        this.dirty = true;
+        if (!this.stepping) {
+            this.compact();
+        }
+    }
+    /**
+     * Moves the balls that are still in the system to the start of the arrays (in order), and moves the removed
+     *  balls to the system of the removed balls.
+     */
+    private void compact() {
+        if (!this.dirty || this.stepping) {
+            return;
+        }
+        // Removing a ball from here while compacting must not start another compaction
+        this.stepping = true;
+        int n = 0;
+        for (int i = 0; i < this.count; i++) {
+            Ball view = this.views[i];
+            if (this.alive[i]) {
+                if (n != i) {
+                    this.x[n] = this.x[i];
+                    this.y[n] = this.y[i];
+                    this.previousX[n] = this.previousX[i];
+                    this.previousY[n] = this.previousY[i];
+                    this.dx[n] = this.dx[i];
+                    this.dy[n] = this.dy[i];
+                    this.radius[n] = this.radius[i];
+                    this.colors[n] = this.colors[i];
+                    this.environments[n] = this.environments[i];
+                    this.maxCollisions[n] = this.maxCollisions[i];
+                    this.alive[n] = true;
+                    this.views[n] = view;
+                    view.setSlot(this, n);
+                }
+                n++;
+            } else if ((view.getSystem() == this) && (view.getIndex() == i)) {
+                // The ball was removed from the game - keep its state in the system of the removed balls
+                if (this.detached == null) {
+                    this.detached = new BallSystem();
+                }
+                this.detached.add(view);
+            }
+        }
+        for (int i = n; i < this.count; i++) {
+            this.alive[i] = false;
+            this.colors[i] = null;
+            this.environments[i] = null;
+            this.views[i] = null;
+        }
+        this.count = n;
+        this.dirty = false;
+        this.stepping = false;
+    }
+    /**
+     * Doubles the size of the arrays.
+     */
+    private void grow() {
+        int size = this.x.length * 2;
+        this.x = Arrays.copyOf(this.x, size);
+        this.y = Arrays.copyOf(this.y, size);
+        this.previousX = Arrays.copyOf(this.previousX, size);
+        this.previousY = Arrays.copyOf(this.previousY, size);
+        this.dx = Arrays.copyOf(this.dx, size);
+        this.dy = Arrays.copyOf(this.dy, size);
+        this.radius = Arrays.copyOf(this.radius, size);
+        this.colors = Arrays.copyOf(this.colors, size);
+        this.environments = Arrays.copyOf(this.environments, size);
+        this.maxCollisions = Arrays.copyOf(this.maxCollisions, size);
+        this.alive = Arrays.copyOf(this.alive, size);
+        this.views = Arrays.copyOf(this.views, size);
+        if (this.free != null) {
+            this.free = Arrays.copyOf(this.free, size);
+            this.nextX = Arrays.copyOf(this.nextX, size);
+            this.nextY = Arrays.copyOf(this.nextY, size);
+            this.versions = Arrays.copyOf(this.versions, size);
+        }
+    }
+
+    /**
+     * QueryTask - queries a range of balls in parallel, by splitting it in two until it is small enough.
+     */
+    private class QueryTask extends RecursiveAction {
+        // Version of the serialized form (the tasks are never serialized)
+        private static final long serialVersionUID = 1L;
+        // The index of the first ball, and the index after the last ball
+        private int from;
+        private int to;
+
+        /**
+         * Constructor - creates a new task for the given range of balls.
+         *
+         * @param from the index of the first ball.
+         * @param to the index after the last ball.
+         */
+        QueryTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+        /**
+         * Queries the range of balls.
+         */
+        protected void compute() {
+            if (this.to - this.from <= PARALLEL_BATCH) {
+                queryRange(this.from, this.to);
+                return;
+            }
+            int middle = (this.from + this.to) / 2;
+            invokeAll(new QueryTask(this.from, middle), new QueryTask(middle, this.to));
+        }
+    }
+}
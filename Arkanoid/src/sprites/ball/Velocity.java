@@ -55,16 +55,17 @@ public class Velocity {
         return this.dy;
     }
     /**
-     * Converts velocity from angle and speed to velocity with dx and dy.
+     * Converts velocity from angle and speed to velocity with dx and dy. StrictMath is used, so the velocity is the
+     *  same on every machine (Math may use faster, platform-specific sine and cosine).
      *
      * @param angle the direction (in degrees) to move in.
      * @param speed number of units to move.
      * @return new velocity.
      */
     public static Velocity fromAngleAndSpeed(double angle, double speed) {
-        double radians = Math.toRadians(angle);
-        double dx = Math.cos(radians - Math.toRadians(90)) * speed;
-        double dy = Math.sin(radians - Math.toRadians(90)) * speed;
+        double radians = StrictMath.toRadians(angle);
+        double dx = StrictMath.cos(radians - StrictMath.toRadians(90)) * speed;
+        double dy = StrictMath.sin(radians - StrictMath.toRadians(90)) * speed;
         return new Velocity(dx, dy);
     }
     /**